@@ -0,0 +1,95 @@
+package com.task.clockwrk.clockWork.dtos;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.task.clockwrk.clockWork.entity.Task;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * JSON encoding of the two largest list responses: GET /api/tasks and GET /api/habits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+	@Param({ "50", "500" })
+	public int size;
+
+	private final JsonMapper mapper = JsonMapper.builder().build();
+	private List<Task> tasks;
+	private List<HabitResponse> habits;
+
+	@Setup
+	public void setUp() {
+		tasks = new ArrayList<>();
+		habits = new ArrayList<>();
+		LocalDate today = LocalDate.now();
+		for (int i = 0; i < size; i++) {
+			tasks.add(Task.builder()
+					.id(UUID.randomUUID())
+					.title("Task " + i)
+					.description("Description of task " + i + " with a few more words in it")
+					.completed(i % 3 == 0)
+					.dueDate(today.plusDays(i % 30))
+					.startTime(Instant.now().plusSeconds(i * 3600L))
+					.endTime(Instant.now().plusSeconds(i * 3600L + 1800))
+					.allDay(false)
+					.durationMinutes(30)
+					.priority(i % 4)
+					.listName(i % 2 == 0 ? "Inbox" : "Work")
+					.changeVersion((long) i)
+					.build());
+			habits.add(HabitResponse.builder()
+					.id(UUID.randomUUID())
+					.name("Habit " + i)
+					.description("Daily habit " + i)
+					.category("Health")
+					.frequency("daily")
+					.targetCount(1)
+					.color("#4f46e5")
+					.icon("check")
+					.createdAt(Instant.now())
+					.stats(HabitStats.builder()
+							.currentStreak(i % 20)
+							.longestStreak(40)
+							.totalCompletions(200)
+							.completionRate(71.4)
+							.completionsThisWeek(5)
+							.completionsThisMonth(21)
+							.build())
+					.build());
+		}
+	}
+
+	@Benchmark
+	public byte[] serializeTasks() {
+		return mapper.writeValueAsBytes(tasks);
+	}
+
+	@Benchmark
+	public byte[] serializeHabits() {
+		return mapper.writeValueAsBytes(habits);
+	}
+}
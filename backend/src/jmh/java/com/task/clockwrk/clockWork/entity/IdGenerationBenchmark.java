@@ -0,0 +1,42 @@
+package com.task.clockwrk.clockWork.entity;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of handing out an id. The v7 generator shares one counter across threads, so it is also
+ * measured under contention. Insert throughput and index size are measured against PostgreSQL by
+ * the {@code ids} command of the load-test tooling.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGenerationBenchmark {
+
+	@Benchmark
+	public UUID randomV4() {
+		return UUID.randomUUID();
+	}
+
+	@Benchmark
+	public UUID timeOrderedV7() {
+		return UuidV7.generate();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public UUID timeOrderedV7Contended() {
+		return UuidV7.generate();
+	}
+}
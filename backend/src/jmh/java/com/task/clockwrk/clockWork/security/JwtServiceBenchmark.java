@@ -0,0 +1,92 @@
+package com.task.clockwrk.clockWork.security;
+
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.task.clockwrk.clockWork.entity.User;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Per-request token handling. {@code legacyTripleParse} reproduces what the filter used to do:
+ * decode the key, build a parser and verify the token three times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+	private final String secretKey = Base64.getEncoder().encodeToString(new byte[32]);
+	private JwtService cached;
+	private JwtService uncached;
+	private User user;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		cached = jwtService(10_000);
+		uncached = jwtService(0);
+
+		user = new User();
+		user.setId(UUID.randomUUID());
+		user.setEmail("bench@clockwrk.test");
+		token = cached.generateToken(user);
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return uncached.generateToken(user);
+	}
+
+	@Benchmark
+	public VerifiedToken verifyUncached() {
+		return uncached.verify(token);
+	}
+
+	@Benchmark
+	public VerifiedToken verifyCached() {
+		return cached.verify(token);
+	}
+
+	@Benchmark
+	public void legacyTripleParse(Blackhole blackhole) {
+		for (int i = 0; i < 3; i++) {
+			Claims claims = Jwts.parser()
+					.verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey)))
+					.build()
+					.parseSignedClaims(token)
+					.getPayload();
+			blackhole.consume(claims);
+		}
+	}
+
+	private JwtService jwtService(long cacheSize) {
+		JwtService service = new JwtService();
+		ReflectionTestUtils.setField(service, "secretKey", secretKey);
+		ReflectionTestUtils.setField(service, "accessTokenExpiration", 1_800_000L);
+		ReflectionTestUtils.setField(service, "refreshTokenExpiration", 604_800_000L);
+		ReflectionTestUtils.setField(service, "verificationCacheSize", cacheSize);
+		service.init();
+		return service;
+	}
+}
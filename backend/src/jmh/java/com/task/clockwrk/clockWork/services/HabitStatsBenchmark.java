@@ -0,0 +1,75 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.task.clockwrk.clockWork.entity.HabitStatsSnapshot;
+
+/**
+ * Statistics of one habit over a full year of history. {@code completionRate} is the share of
+ * days ticked off: sparse, typical and unbroken habits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HabitStatsBenchmark {
+
+	private static final LocalDate TODAY = LocalDate.of(2024, 12, 31);
+
+	@Param({ "0.3", "0.8", "1.0" })
+	public double completionRate;
+
+	private final UUID habitId = UUID.randomUUID();
+	private HabitCompletionBitmap bitmap;
+	private byte[] stored;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		bitmap = HabitCompletionBitmap.empty(TODAY.getYear());
+		for (LocalDate day = TODAY.withDayOfYear(1); !day.isAfter(TODAY); day = day.plusDays(1)) {
+			if (random.nextDouble() < completionRate) {
+				bitmap.setCompleted(day, true);
+			}
+		}
+		stored = bitmap.toBytes();
+	}
+
+	@Benchmark
+	public HabitStatsSnapshot calculateStats() {
+		return HabitStatsCalculator.calculateStats(habitId, bitmap, TODAY);
+	}
+
+	@Benchmark
+	public int calculateCurrentStreak() {
+		return HabitStatsCalculator.calculateCurrentStreak(bitmap, TODAY);
+	}
+
+	@Benchmark
+	public int calculateLongestStreak() {
+		return HabitStatsCalculator.calculateLongestStreak(bitmap, TODAY);
+	}
+
+	// Load path: bytea column to bitmap to snapshot
+	@Benchmark
+	public HabitStatsSnapshot calculateStatsFromStoredBytes() {
+		return HabitStatsCalculator.calculateStats(habitId, HabitCompletionBitmap.fromBytes(TODAY.getYear(), stored), TODAY);
+	}
+}
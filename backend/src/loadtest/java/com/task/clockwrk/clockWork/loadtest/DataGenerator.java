@@ -0,0 +1,305 @@
+package com.task.clockwrk.clockWork.loadtest;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.task.clockwrk.clockWork.services.HabitCompletionBitmap;
+
+/**
+ * Bulk-loads synthetic users with COPY. Activity follows a Pareto distribution, so most users have
+ * a few dozen tasks and a couple of short-lived habits while a small tail of power users has
+ * thousands of tasks and up to three years of habit history. Every run with the same seed
+ * produces the same data.
+ */
+final class DataGenerator {
+
+	static final String EMAIL_DOMAIN = "loadtest.clockwrk";
+	static final String PASSWORD = "loadtest-password";
+
+	private static final Set<String> LOCAL_HOSTS = Set.of("localhost", "127.0.0.1", "[::1]", "::1");
+	private static final String[] LISTS = { "Inbox", "Work", "Personal", "Shopping", "Errands" };
+	private static final String[] CATEGORIES = { "Health", "Productivity", "Learning", "Mindfulness" };
+
+	private final LoadTest.Options options;
+	private final LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+	DataGenerator(LoadTest.Options options) {
+		this.options = options;
+	}
+
+	void run() throws SQLException {
+		String url = options.get("jdbc-url", "jdbc:postgresql://localhost:5432/clockwrk");
+		String host = URI.create(url.substring("jdbc:".length())).getHost();
+		if (!LOCAL_HOSTS.contains(host) && !options.has("allow-remote")) {
+			throw new IllegalArgumentException("Refusing to load data into non-local host " + host
+					+ "; pass --allow-remote to override");
+		}
+
+		List<UserProfile> users = profiles(options.getInt("users", 10_000), options.getInt("seed", 42));
+		try (Connection connection = DriverManager.getConnection(url,
+				options.get("db-user", "postgres"), options.get("db-password", "postgres"))) {
+			connection.setAutoCommit(false);
+			if (options.has("truncate")) {
+				try (Statement statement = connection.createStatement()) {
+					statement.execute("TRUNCATE users, tasks, habits, habit_entries, habit_completion_years, "
+							+ "habit_stats, refresh_tokens, custom_lists, sync_tombstones, outbound_emails, collection_versions");
+				}
+			}
+
+			CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+			String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+
+			load(copy, "users", "id, email, password_hash, name, email_verified, created_at", out -> {
+				for (UserProfile user : users) {
+					out.row(user.id(), email(user.index()), passwordHash, "Load User " + user.index(), true,
+							user.createdAt());
+				}
+			});
+			load(copy, "tasks", "id, user_id, title, description, completed, due_date, start_time, end_time, "
+					+ "all_day, duration_minutes, priority, list_name, created_at", out -> {
+				for (UserProfile user : users) {
+					writeTasks(out, user);
+				}
+			});
+			load(copy, "habits", "id, user_id, name, description, category, frequency, target_count, color, "
+					+ "icon, archived, created_at", out -> {
+				for (UserProfile user : users) {
+					for (HabitProfile habit : user.habits()) {
+						out.row(habit.id(), user.id(), "Habit " + habit.id().toString().substring(0, 8), null,
+								CATEGORIES[(int) (habit.seed() & 3)], "daily", 1, "#4f46e5", "check", false,
+								habit.start().atStartOfDay().toInstant(ZoneOffset.UTC));
+					}
+				}
+			});
+			load(copy, "habit_entries", "id, habit_id, date, completed, count, created_at, completed_at", out -> {
+				for (UserProfile user : users) {
+					for (HabitProfile habit : user.habits()) {
+						writeEntries(out, habit);
+					}
+				}
+			});
+			load(copy, "habit_completion_years", "habit_id, year, bits", out -> {
+				for (UserProfile user : users) {
+					for (HabitProfile habit : user.habits()) {
+						for (HabitCompletionBitmap bitmap : bitmaps(habit).values()) {
+							out.row(habit.id(), bitmap.year(), bitmap.toBytes());
+						}
+					}
+				}
+			});
+			load(copy, "refresh_tokens", "id, user_id, token, expires_at, revoked", out -> {
+				for (UserProfile user : users) {
+					writeRefreshTokens(out, user);
+				}
+			});
+
+			connection.commit();
+			try (Statement statement = connection.createStatement()) {
+				connection.setAutoCommit(true);
+				statement.execute("ANALYZE");
+			}
+		}
+		System.out.printf("Loaded %d users; log in as %s with password %s%n", users.size(), email(0), PASSWORD);
+	}
+
+	static String email(int index) {
+		return "user" + index + "@" + EMAIL_DOMAIN;
+	}
+
+	private List<UserProfile> profiles(int count, long seed) {
+		Random random = new Random(seed);
+		List<UserProfile> users = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			// Pareto with alpha 1.5: mean 3, a few percent of users above 20
+			double activity = Math.pow(1 - random.nextDouble(), -1 / 1.5);
+			int historyDays = (int) Math.min(3 * 365, 30 * activity);
+
+			List<HabitProfile> habits = new ArrayList<>();
+			int habitCount = (int) Math.min(12, activity * 1.5);
+			for (int h = 0; h < habitCount; h++) {
+				habits.add(new HabitProfile(uuid(random), random.nextLong(),
+						today.minusDays(random.nextInt(historyDays + 1)), 0.4 + random.nextDouble() * 0.55));
+			}
+			users.add(new UserProfile(i, uuid(random), random.nextLong(),
+					today.minusDays(historyDays).atStartOfDay().toInstant(ZoneOffset.UTC),
+					(int) Math.min(5000, 15 * activity), habits));
+		}
+		return users;
+	}
+
+	private void writeTasks(CopyStream out, UserProfile user) {
+		Random random = new Random(user.seed());
+		long historySeconds = Math.max(1, ChronoUnit.SECONDS.between(user.createdAt(), Instant.now()));
+		for (int t = 0; t < user.tasks(); t++) {
+			Instant createdAt = user.createdAt().plusSeconds((long) (random.nextDouble() * historySeconds));
+			LocalDate due = random.nextInt(4) == 0 ? null
+					: createdAt.atOffset(ZoneOffset.UTC).toLocalDate().plusDays(random.nextInt(21));
+			boolean timed = random.nextInt(3) == 0;
+			Instant start = timed ? (due != null ? due : today).atTime(8 + random.nextInt(10), 0)
+					.toInstant(ZoneOffset.UTC) : null;
+			int duration = 15 * (1 + random.nextInt(8));
+			boolean completed = due != null && due.isBefore(today) && random.nextDouble() < 0.8;
+
+			out.row(uuid(random), user.id(), "Task " + t, random.nextBoolean() ? "Synthetic task " + t : null,
+					completed, due, start, timed ? start.plusSeconds(duration * 60L) : null, !timed,
+					timed ? duration : null, random.nextInt(4), LISTS[random.nextInt(LISTS.length)], createdAt);
+		}
+	}
+
+	private void writeEntries(CopyStream out, HabitProfile habit) {
+		Random ids = new Random(habit.seed() ^ 0x5DEECE66DL);
+		forEachEntry(habit, (date, completed) -> {
+			Instant at = date.atTime(19, 0).toInstant(ZoneOffset.UTC);
+			out.row(uuid(ids), habit.id(), date, completed, 1, at, completed ? at : null);
+		});
+	}
+
+	private Map<Integer, HabitCompletionBitmap> bitmaps(HabitProfile habit) {
+		Map<Integer, HabitCompletionBitmap> bitmaps = new HashMap<>();
+		forEachEntry(habit, (date, completed) -> {
+			if (completed) {
+				bitmaps.computeIfAbsent(date.getYear(), HabitCompletionBitmap::empty).setCompleted(date, true);
+			}
+		});
+		return bitmaps;
+	}
+
+	// Completions come in streaks: the state flips with 15% probability per day
+	private void forEachEntry(HabitProfile habit, EntryConsumer consumer) {
+		Random random = new Random(habit.seed());
+		boolean done = random.nextDouble() < habit.rate();
+		for (LocalDate date = habit.start(); !date.isAfter(today); date = date.plusDays(1)) {
+			if (random.nextDouble() < 0.15) {
+				done = random.nextDouble() < habit.rate();
+			}
+			if (done) {
+				consumer.accept(date, true);
+			} else if (random.nextDouble() < 0.03) {
+				consumer.accept(date, false); // Ticked and unticked again
+			}
+		}
+	}
+
+	private void writeRefreshTokens(CopyStream out, UserProfile user) {
+		Random random = new Random(~user.seed());
+		int tokens = 1 + random.nextInt(3);
+		for (int i = 0; i < tokens; i++) {
+			byte[] token = new byte[48];
+			random.nextBytes(token);
+			out.row(uuid(random), user.id(), Base64.getUrlEncoder().withoutPadding().encodeToString(token),
+					Instant.now().plus(7 - i * 7L, ChronoUnit.DAYS), i < tokens - 1);
+		}
+	}
+
+	private static void load(CopyManager copy, String table, String columns, TableWriter writer) throws SQLException {
+		long started = System.nanoTime();
+		try (CopyStream out = new CopyStream(copy.copyIn("COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)"))) {
+			writer.write(out);
+			out.flush();
+			System.out.printf("%-24s %,12d rows in %,6d ms%n", table, out.rows,
+					(System.nanoTime() - started) / 1_000_000);
+		}
+	}
+
+	private static UUID uuid(Random random) {
+		return new UUID(random.nextLong(), random.nextLong());
+	}
+
+	private record UserProfile(int index, UUID id, long seed, Instant createdAt, int tasks, List<HabitProfile> habits) {
+	}
+
+	private record HabitProfile(UUID id, long seed, LocalDate start, double rate) {
+	}
+
+	@FunctionalInterface
+	private interface TableWriter {
+		void write(CopyStream out) throws SQLException;
+	}
+
+	@FunctionalInterface
+	private interface EntryConsumer {
+		void accept(LocalDate date, boolean completed);
+	}
+
+	/**
+	 * Buffers CSV rows and hands them to the server in 1 MiB chunks.
+	 */
+	private static final class CopyStream implements AutoCloseable {
+
+		private static final int FLUSH_CHARS = 1 << 20;
+
+		private final CopyIn copyIn;
+		private final StringBuilder buffer = new StringBuilder(FLUSH_CHARS + 4096);
+		private long rows;
+
+		CopyStream(CopyIn copyIn) {
+			this.copyIn = copyIn;
+		}
+
+		void row(Object... values) {
+			for (int i = 0; i < values.length; i++) {
+				if (i > 0) {
+					buffer.append(',');
+				}
+				append(values[i]);
+			}
+			buffer.append('\n');
+			rows++;
+			if (buffer.length() >= FLUSH_CHARS) {
+				flush();
+			}
+		}
+
+		void flush() {
+			byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+			buffer.setLength(0);
+			try {
+				copyIn.writeToCopy(bytes, 0, bytes.length);
+			} catch (SQLException e) {
+				throw new IllegalStateException("COPY failed", e);
+			}
+		}
+
+		private void append(Object value) {
+			if (value == null) {
+				return; // Unquoted empty field is NULL in CSV mode
+			}
+			if (value instanceof byte[] bytes) {
+				buffer.append("\\x").append(HexFormat.of().formatHex(bytes));
+			} else if (value instanceof String text) {
+				buffer.append('"').append(text.replace("\"", "\"\"")).append('"');
+			} else {
+				buffer.append(value);
+			}
+		}
+
+		@Override
+		public void close() throws SQLException {
+			if (copyIn.isActive()) {
+				copyIn.endCopy();
+			}
+		}
+	}
+}
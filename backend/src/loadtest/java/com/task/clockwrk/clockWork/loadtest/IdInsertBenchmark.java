@@ -0,0 +1,129 @@
+package com.task.clockwrk.clockWork.loadtest;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import com.task.clockwrk.clockWork.entity.UuidV7;
+
+/**
+ * Inserts the same number of rows into two scratch tables shaped like {@code habit_entries}, one
+ * keyed by random v4 ids and one by {@link UuidV7}, and reports insert throughput plus the size of
+ * each primary key index. Rows go in through batched INSERTs in committed chunks, the way the
+ * application writes them. Differences only show once the random-key index outgrows shared_buffers,
+ * so use at least a few million rows.
+ */
+final class IdInsertBenchmark {
+
+	private static final Set<String> LOCAL_HOSTS = Set.of("localhost", "127.0.0.1", "[::1]", "::1");
+	private static final int BATCH = 1_000;
+
+	private final LoadTest.Options options;
+
+	IdInsertBenchmark(LoadTest.Options options) {
+		this.options = options;
+	}
+
+	void run() throws Exception {
+		String url = options.get("jdbc-url", "jdbc:postgresql://localhost:5432/clockwrk");
+		String host = URI.create(url.substring("jdbc:".length())).getHost();
+		if (!LOCAL_HOSTS.contains(host) && !options.has("allow-remote")) {
+			throw new IllegalArgumentException("Refusing to benchmark against non-local host " + host
+					+ "; pass --allow-remote to override");
+		}
+		int rows = options.getInt("rows", 5_000_000);
+
+		List<Map<String, Object>> results = new ArrayList<>();
+		try (Connection connection = DriverManager.getConnection(url,
+				options.get("db-user", "postgres"), options.get("db-password", "postgres"))) {
+			results.add(measure(connection, "v4", UUID::randomUUID, rows));
+			results.add(measure(connection, "v7", UuidV7::generate, rows));
+		}
+
+		System.out.printf("%-4s %12s %12s %14s %14s%n", "ids", "rows", "rows/s", "pk index MiB", "table MiB");
+		for (Map<String, Object> result : results) {
+			System.out.printf("%-4s %,12d %,12.0f %,14.1f %,14.1f%n", result.get("ids"), result.get("rows"),
+					result.get("rowsPerSecond"), mebibytes(result.get("indexBytes")), mebibytes(result.get("tableBytes")));
+		}
+
+		Path out = Path.of(options.get("out", "target/id-insert-result.json"));
+		Files.createDirectories(out.toAbsolutePath().getParent());
+		JsonMapper.builder().build().writerWithDefaultPrettyPrinter().writeValue(out.toFile(), results);
+		System.out.println("Wrote " + out);
+	}
+
+	private Map<String, Object> measure(Connection connection, String name, Supplier<UUID> ids, int rows)
+			throws SQLException {
+		String table = "id_bench_" + name;
+		connection.setAutoCommit(true);
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE IF EXISTS " + table);
+			statement.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, habit_id UUID NOT NULL, "
+					+ "date DATE NOT NULL, completed BOOLEAN NOT NULL, created_at TIMESTAMPTZ)");
+		}
+
+		connection.setAutoCommit(false);
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long started = System.nanoTime();
+		try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table
+				+ " (id, habit_id, date, completed, created_at) VALUES (?, ?, CURRENT_DATE, ?, ?)")) {
+			for (int i = 0; i < rows; i++) {
+				insert.setObject(1, ids.get());
+				insert.setObject(2, new UUID(random.nextLong(), random.nextLong()));
+				insert.setBoolean(3, random.nextBoolean());
+				insert.setTimestamp(4, Timestamp.from(Instant.now()));
+				insert.addBatch();
+				if ((i + 1) % BATCH == 0 || i == rows - 1) {
+					insert.executeBatch();
+					connection.commit();
+				}
+			}
+		}
+		double seconds = (System.nanoTime() - started) / 1e9;
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("ids", name);
+		result.put("rows", rows);
+		result.put("rowsPerSecond", rows / seconds);
+		result.put("indexBytes", size(connection, "pg_relation_size('" + table + "_pkey')"));
+		result.put("tableBytes", size(connection, "pg_relation_size('" + table + "')"));
+
+		connection.setAutoCommit(true);
+		if (!options.has("keep")) {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("DROP TABLE " + table);
+			}
+		}
+		return result;
+	}
+
+	private static long size(Connection connection, String expression) throws SQLException {
+		try (Statement statement = connection.createStatement();
+				ResultSet rs = statement.executeQuery("SELECT " + expression)) {
+			rs.next();
+			return rs.getLong(1);
+		}
+	}
+
+	private static double mebibytes(Object bytes) {
+		return ((Long) bytes) / (1024.0 * 1024.0);
+	}
+}
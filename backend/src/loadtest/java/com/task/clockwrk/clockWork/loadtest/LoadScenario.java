@@ -0,0 +1,237 @@
+package com.task.clockwrk.clockWork.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Replays client sessions against a running backend: log in, list tasks, open the calendar month,
+ * list habits with their month of entries and tick off a few habits. Each virtual user runs
+ * sessions back to back for the configured duration. Latencies recorded during the warmup are
+ * dropped. The report is printed and also written as JSON to {@code --out}.
+ */
+final class LoadScenario {
+
+	private static final String[] OPERATIONS = {
+			"login", "tasks.list", "tasks.calendar", "habits.list", "habits.entries", "habits.toggle" };
+
+	private final LoadTest.Options options;
+	private final JsonMapper mapper = JsonMapper.builder().build();
+	private final HttpClient client = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(5))
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.build();
+	private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+	private final String baseUrl;
+	private final int users;
+	private volatile boolean recording;
+
+	LoadScenario(LoadTest.Options options) {
+		this.options = options;
+		this.baseUrl = options.get("base-url", "http://localhost:8080");
+		this.users = options.getInt("users", 10_000);
+		for (String operation : OPERATIONS) {
+			recorders.put(operation, new Recorder());
+		}
+	}
+
+	void run() throws Exception {
+		int concurrency = options.getInt("concurrency", 200);
+		Duration warmup = Duration.ofSeconds(options.getInt("warmup", 10));
+		Duration duration = Duration.ofSeconds(options.getInt("duration", 60));
+		long warmupEnds = System.nanoTime() + warmup.toNanos();
+		long ends = warmupEnds + duration.toNanos();
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < concurrency; i++) {
+				executor.submit(() -> {
+					while (System.nanoTime() < ends) {
+						recording = System.nanoTime() >= warmupEnds;
+						session();
+					}
+					return null;
+				});
+			}
+		}
+
+		report(concurrency, duration);
+	}
+
+	private void session() {
+		try {
+			String token = login();
+			if (token == null) {
+				return;
+			}
+			call("tasks.list", get("/api/tasks", token));
+
+			YearMonth month = YearMonth.now();
+			call("tasks.calendar", get("/api/tasks/calendar?startDate=" + month.atDay(1)
+					+ "&endDate=" + month.atEndOfMonth(), token));
+
+			JsonNode habits = call("habits.list", get("/api/habits", token));
+			call("habits.entries", get("/api/habits/entries?startDate=" + month.atDay(1)
+					+ "&endDate=" + month.atEndOfMonth(), token));
+
+			if (habits != null && habits.size() > 0) {
+				for (int i = 0; i < 3; i++) {
+					JsonNode habit = habits.get(ThreadLocalRandom.current().nextInt(habits.size()));
+					LocalDate day = LocalDate.now().minusDays(ThreadLocalRandom.current().nextInt(7));
+					call("habits.toggle", HttpRequest.newBuilder(uri("/api/habits/" + habit.get("id").asString()
+							+ "/toggle?date=" + day))
+							.header("Authorization", "Bearer " + token)
+							.POST(HttpRequest.BodyPublishers.noBody())
+							.build());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private String login() throws InterruptedException {
+		String body = mapper.writeValueAsString(Map.of(
+				"email", DataGenerator.email(skewedUser()),
+				"password", DataGenerator.PASSWORD));
+		JsonNode response = call("login", HttpRequest.newBuilder(uri("/api/auth/authenticate"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build());
+		return response != null && response.hasNonNull("accessToken") ? response.get("accessToken").asString() : null;
+	}
+
+	// Low user numbers are the generator's power users only by chance, so skew the choice instead
+	private int skewedUser() {
+		double u = ThreadLocalRandom.current().nextDouble();
+		return (int) Math.min(users - 1, users * u * u * u);
+	}
+
+	private HttpRequest get(String path, String token) {
+		return HttpRequest.newBuilder(uri(path))
+				.header("Authorization", "Bearer " + token)
+				.GET()
+				.build();
+	}
+
+	private URI uri(String path) {
+		return URI.create(baseUrl + path);
+	}
+
+	private JsonNode call(String operation, HttpRequest request) throws InterruptedException {
+		long started = System.nanoTime();
+		boolean ok = false;
+		JsonNode body = null;
+		try {
+			HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+			ok = response.statusCode() < 400;
+			if (ok && !response.body().isEmpty()) {
+				body = mapper.readTree(response.body());
+			}
+		} catch (IOException e) {
+			ok = false;
+		} finally {
+			if (recording) {
+				recorders.get(operation).record(System.nanoTime() - started, ok);
+			}
+		}
+		return body;
+	}
+
+	private void report(int concurrency, Duration duration) throws IOException {
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("baseUrl", baseUrl);
+		result.put("concurrency", concurrency);
+		result.put("durationSeconds", duration.toSeconds());
+
+		System.out.printf("%-16s %9s %7s %9s %9s %9s %9s %9s%n",
+				"operation", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+		Map<String, Object> operations = new LinkedHashMap<>();
+		long total = 0;
+		for (Map.Entry<String, Recorder> entry : recorders.entrySet()) {
+			Recorder.Summary s = entry.getValue().summarize();
+			double throughput = s.count() / (double) duration.toSeconds();
+			total += s.count();
+			System.out.printf("%-16s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), s.count(),
+					s.errors(), throughput, s.p50(), s.p95(), s.p99(), s.max());
+			Map<String, Object> stats = new LinkedHashMap<>();
+			stats.put("count", s.count());
+			stats.put("errors", s.errors());
+			stats.put("throughput", throughput);
+			stats.put("p50Ms", s.p50());
+			stats.put("p95Ms", s.p95());
+			stats.put("p99Ms", s.p99());
+			stats.put("maxMs", s.max());
+			operations.put(entry.getKey(), stats);
+		}
+		System.out.printf("%-16s %9d %7s %9.1f%n", "total", total, "", total / (double) duration.toSeconds());
+		result.put("operations", operations);
+
+		Path out = Path.of(options.get("out", "target/loadtest-result.json"));
+		Files.createDirectories(out.toAbsolutePath().getParent());
+		Files.writeString(out, mapper.writerWithDefaultPrettyPrinter().writeValueAsString(result));
+		System.out.println("Results written to " + out);
+	}
+
+	private static final class Recorder {
+
+		private final List<long[]> chunks = new ArrayList<>();
+		private long[] current = new long[8192];
+		private int size;
+		private final AtomicLong errors = new AtomicLong();
+
+		synchronized void record(long nanos, boolean ok) {
+			if (!ok) {
+				errors.incrementAndGet();
+			}
+			if (size == current.length) {
+				chunks.add(current);
+				current = new long[current.length];
+				size = 0;
+			}
+			current[size++] = nanos;
+		}
+
+		synchronized Summary summarize() {
+			int count = chunks.size() * current.length + size;
+			long[] all = new long[count];
+			int offset = 0;
+			for (long[] chunk : chunks) {
+				System.arraycopy(chunk, 0, all, offset, chunk.length);
+				offset += chunk.length;
+			}
+			System.arraycopy(current, 0, all, offset, size);
+			Arrays.sort(all);
+			return new Summary(count, errors.get(), percentile(all, 0.50), percentile(all, 0.95),
+					percentile(all, 0.99), count == 0 ? 0 : all[count - 1] / 1e6);
+		}
+
+		private static double percentile(long[] sorted, double p) {
+			if (sorted.length == 0) {
+				return 0;
+			}
+			return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+		}
+
+		record Summary(long count, long errors, double p50, double p95, double p99, double max) {
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.task.clockwrk.clockWork.loadtest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Entry point of the load-test tooling.
+ *
+ * <pre>
+ * generate [--users=10000] [--seed=42] [--truncate] [--jdbc-url=...] [--db-user=...] [--db-password=...]
+ * run      [--base-url=http://localhost:8080] [--users=10000] [--concurrency=200] [--duration=60] [--warmup=10]
+ * ids      [--rows=5000000] [--keep] [--jdbc-url=...] [--db-user=...] [--db-password=...]
+ * </pre>
+ */
+public final class LoadTest {
+
+	private LoadTest() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 0) {
+			System.err.println("Usage: LoadTest generate|run|ids [--option=value ...]");
+			System.exit(2);
+		}
+		Options options = Options.parse(Arrays.copyOfRange(args, 1, args.length));
+		switch (args[0]) {
+			case "generate" -> new DataGenerator(options).run();
+			case "run" -> new LoadScenario(options).run();
+			case "ids" -> new IdInsertBenchmark(options).run();
+			default -> {
+				System.err.println("Unknown command: " + args[0]);
+				System.exit(2);
+			}
+		}
+	}
+
+	record Options(Map<String, String> values) {
+
+		static Options parse(String[] args) {
+			Map<String, String> values = new HashMap<>();
+			for (String arg : args) {
+				if (!arg.startsWith("--")) {
+					throw new IllegalArgumentException("Expected --option=value but got " + arg);
+				}
+				int eq = arg.indexOf('=');
+				values.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+			}
+			return new Options(values);
+		}
+
+		String get(String name, String defaultValue) {
+			return values.getOrDefault(name, defaultValue);
+		}
+
+		int getInt(String name, int defaultValue) {
+			return values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+		}
+
+		boolean has(String name) {
+			return Boolean.parseBoolean(values.getOrDefault(name, "false"));
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.task.clockwrk.clockWork.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Extra wiring for {@code spring.threads.virtual.enabled=true}. Tomcat, scheduling and async
+ * execution switch to virtual threads on their own; what is added here is a limiter in front of
+ * the connection pool, so that thousands of parked requests wait on a cheap semaphore instead of
+ * inside the pool.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            @Value("${app.datasource.limiter.acquire-timeout:30s}") Duration acquireTimeout
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize(), acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder connectionLimiterMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConnectionLimitingDataSource limiter) {
+                Gauge.builder("clockwrk.datasource.limiter.available", limiter, ConnectionLimitingDataSource::availablePermits)
+                        .description("Connections that can be borrowed without waiting")
+                        .register(registry);
+                Gauge.builder("clockwrk.datasource.limiter.waiting", limiter, ConnectionLimitingDataSource::queueLength)
+                        .description("Threads parked waiting for a connection")
+                        .register(registry);
+            }
+        };
+    }
+}
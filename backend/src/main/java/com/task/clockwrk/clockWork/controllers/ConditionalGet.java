@@ -0,0 +1,50 @@
+package com.task.clockwrk.clockWork.controllers;
+
+import java.util.function.Supplier;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Conditional GET for polled collections. The body is only built when the client's
+ * If-None-Match does not match. Responses are marked no-cache rather than the default no-store,
+ * so browsers keep the body and revalidate on every poll. They vary by Authorization, so a
+ * browser never answers one user's request from another user's cached copy.
+ */
+final class ConditionalGet {
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {
+    }
+
+    static <T> ResponseEntity<T> respond(WebRequest request, String versionTag, Supplier<T> body) {
+        String etag = "\"" + versionTag + "\"";
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE)
+                    .varyBy(HttpHeaders.AUTHORIZATION).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.AUTHORIZATION).body(body.get());
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses weak comparison
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
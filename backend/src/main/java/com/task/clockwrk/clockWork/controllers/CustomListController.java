@@ -1,14 +1,16 @@
 package com.task.clockwrk.clockWork.controllers;
 
 import com.task.clockwrk.clockWork.entity.CustomList;
+import com.task.clockwrk.clockWork.entity.SyncEntityType;
 import com.task.clockwrk.clockWork.repository.CustomListRepository;
-import com.task.clockwrk.clockWork.repository.UserRepository;
+import com.task.clockwrk.clockWork.security.CurrentUser;
+import com.task.clockwrk.clockWork.services.CollectionVersionService;
+import com.task.clockwrk.clockWork.services.SyncService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -19,35 +21,34 @@ import java.util.UUID;
 public class CustomListController {
 
     private final CustomListRepository listRepository;
-    private final UserRepository userRepository;
+    private final SyncService syncService;
+    private final CollectionVersionService collectionVersions;
 
     @GetMapping
-    public ResponseEntity<List<CustomList>> getLists() {
-        String email = ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-        var user = userRepository.findByEmail(email).orElseThrow();
-        return ResponseEntity.ok(listRepository.findAllByUser(user));
+    public ResponseEntity<List<CustomList>> getLists(CurrentUser currentUser, WebRequest request) {
+        String version = collectionVersions.versionTag(currentUser.getId(), SyncEntityType.CUSTOM_LIST);
+        return ConditionalGet.respond(request, version, () -> listRepository.findAllByUserId(currentUser.getId()));
     }
 
     @PostMapping
-    public ResponseEntity<CustomList> createList(@RequestBody CustomList listData) {
-        String email = ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-        var user = userRepository.findByEmail(email).orElseThrow();
-        
+    @Transactional
+    public ResponseEntity<CustomList> createList(CurrentUser currentUser, @RequestBody CustomList listData) {
         var newList = CustomList.builder()
                 .name(listData.getName())
-                .user(user)
+                .user(currentUser.getReference())
                 .build();
                 
+        collectionVersions.bump(currentUser.getId(), SyncEntityType.CUSTOM_LIST);
         return ResponseEntity.ok(listRepository.save(newList));
     }
 
     @DeleteMapping("/{id}")
     @Transactional
-    public ResponseEntity<Void> deleteList(@PathVariable UUID id) {
-        String email = ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-        var user = userRepository.findByEmail(email).orElseThrow();
-        
-        listRepository.deleteByIdAndUser(id, user);
+    public ResponseEntity<Void> deleteList(CurrentUser currentUser, @PathVariable UUID id) {
+        if (listRepository.deleteByIdAndUserId(id, currentUser.getId()) > 0) {
+            syncService.recordDeletion(currentUser.getId(), SyncEntityType.CUSTOM_LIST, id);
+            collectionVersions.bump(currentUser.getId(), SyncEntityType.CUSTOM_LIST);
+        }
         return ResponseEntity.ok().build();
     }
 }
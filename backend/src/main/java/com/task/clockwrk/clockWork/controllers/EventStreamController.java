@@ -0,0 +1,60 @@
+package com.task.clockwrk.clockWork.controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.task.clockwrk.clockWork.dtos.StreamTicketResponse;
+import com.task.clockwrk.clockWork.exception.ApiException;
+import com.task.clockwrk.clockWork.security.AuthenticatedUser;
+import com.task.clockwrk.clockWork.security.CurrentUser;
+import com.task.clockwrk.clockWork.security.StreamTickets;
+import com.task.clockwrk.clockWork.services.ChangeStream;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class EventStreamController {
+
+    private final ChangeStream changeStream;
+    private final StreamTickets streamTickets;
+
+    // Opening the stream takes one of these as ?ticket=, since EventSource cannot send the token
+    @PostMapping("/tickets")
+    public StreamTicketResponse issueTicket(@AuthenticationPrincipal AuthenticatedUser user) {
+        if (user == null) {
+            throw ApiException.unauthorized("Not authenticated");
+        }
+        return streamTickets.issue(user);
+    }
+
+    // A ticket opens one connection, so clients reconnect with a fresh EventSource and pass the
+    // last id they saw as a query parameter; the browser's own Last-Event-ID is honoured as well
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(
+            CurrentUser currentUser,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(name = "lastEventId", required = false) String lastEventIdParam
+    ) {
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        return changeStream.subscribe(currentUser.getId(), lastEventId)
+                .map(emitter -> ResponseEntity.ok()
+                        .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                        .header("X-Accel-Buffering", "no") // Keep nginx from buffering the stream
+                        .body(emitter))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "30")
+                        .build());
+    }
+}
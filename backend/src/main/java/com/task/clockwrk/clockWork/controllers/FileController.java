@@ -1,34 +1,54 @@
 package com.task.clockwrk.clockWork.controllers;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.task.clockwrk.clockWork.dtos.UploadSessionRequest;
+import com.task.clockwrk.clockWork.dtos.UploadSessionResponse;
 import com.task.clockwrk.clockWork.exception.ApiException;
+import com.task.clockwrk.clockWork.security.CurrentUser;
+import com.task.clockwrk.clockWork.services.ChunkedUploads;
+import com.task.clockwrk.clockWork.services.UploadStore;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @RestController
 @RequestMapping("/api/upload")
+@RequiredArgsConstructor
 @Slf4j
 public class FileController {
 
+    private final UploadStore uploadStore;
+    private final ChunkedUploads chunkedUploads;
+    private final MeterRegistry meterRegistry;
+
     @Value("${file.upload.max-size:2097152}")
     private long maxFileSize;
 
@@ -36,83 +56,170 @@ public class FileController {
     private String allowedTypesString;
 
     private List<String> allowedTypes;
-    private Path fileStorageLocation;
 
     @PostConstruct
     public void init() {
-        // Parse allowed types
         this.allowedTypes = List.of(allowedTypesString.split(","));
-        
-        // Initialize storage location
-        this.fileStorageLocation = Paths.get("uploads").toAbsolutePath().normalize();
-        try {
-            Files.createDirectories(this.fileStorageLocation);
-            log.info("File upload directory created at: {}", this.fileStorageLocation);
-        } catch (Exception ex) {
-            log.error("Could not create upload directory", ex);
-            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
-        }
     }
 
-    @PostMapping
+    /**
+     * Streams the request body straight into the store, skipping multipart parsing and its temp
+     * file. The body is the file itself and Content-Type its type.
+     */
+    @PostMapping(consumes = {
+            MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_GIF_VALUE, "image/webp", "image/svg+xml"
+    })
+    public ResponseEntity<Map<String, String>> uploadBody(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(name = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            InputStream body
+    ) {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        String type = mediaType.getType() + "/" + mediaType.getSubtype();
+        return record(contentLength, () -> {
+            if (contentLength != null && contentLength > maxFileSize) {
+                throw fileTooLarge();
+            }
+            validateType(type);
+            return store(body, type, canonicalExtension(type));
+        });
+    }
+
+    // Form upload of older clients; Spring stages the part in a temp file before this runs
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<Map<String, String>> uploadFile(@RequestParam("file") MultipartFile file) {
-        // Validate file is not empty
-        if (file.isEmpty()) {
-            throw ApiException.badRequest("Please select a file to upload");
-        }
+        return record(file.getSize(), () -> {
+            // Validate file is not empty
+            if (file.isEmpty()) {
+                throw ApiException.badRequest("Please select a file to upload");
+            }
 
-        // Validate file size
-        if (file.getSize() > maxFileSize) {
-            throw ApiException.badRequest("File size exceeds maximum allowed size of " + (maxFileSize / 1024 / 1024) + "MB");
-        }
+            // Validate file size
+            if (file.getSize() > maxFileSize) {
+                throw fileTooLarge();
+            }
 
-        // Validate file type
-        String contentType = file.getContentType();
-        if (contentType == null || !allowedTypes.contains(contentType)) {
-            throw ApiException.badRequest("File type not allowed. Allowed types: " + String.join(", ", allowedTypes));
-        }
+            String contentType = file.getContentType();
+            validateType(contentType);
 
-        String originalFilename = file.getOriginalFilename();
-        String fileName = StringUtils.cleanPath(originalFilename != null ? originalFilename : "file");
-        
-        // Check for path traversal attack
-        if (fileName.contains("..")) {
-            throw ApiException.badRequest("Invalid filename");
-        }
+            String originalFilename = file.getOriginalFilename();
+            String fileName = StringUtils.cleanPath(originalFilename != null ? originalFilename : "file");
+
+            // Check for path traversal attack
+            if (fileName.contains("..")) {
+                throw ApiException.badRequest("Invalid filename");
+            }
 
-        try {
-            // Generate unique name to avoid collisions
             String fileExtension = "";
             int i = fileName.lastIndexOf('.');
             if (i > 0) {
                 fileExtension = fileName.substring(i).toLowerCase();
             }
-            
+
             // Validate extension matches content type
             if (!isExtensionValid(fileExtension, contentType)) {
                 throw ApiException.badRequest("File extension does not match content type");
             }
 
-            String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
-            Path targetLocation = this.fileStorageLocation.resolve(uniqueFileName);
-            
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            try (InputStream content = file.getInputStream()) {
+                return store(content, contentType, canonicalExtension(contentType));
+            }
+        });
+    }
+
+    /**
+     * Starts a resumable upload for files too large for one request. The client then PUTs the
+     * chunks, in any order and in parallel, and completes the session.
+     */
+    @PostMapping(path = "/sessions", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UploadSessionResponse> openSession(
+            CurrentUser currentUser,
+            @Valid @RequestBody UploadSessionRequest request
+    ) throws IOException {
+        validateType(request.getContentType());
+        UploadSessionResponse session = chunkedUploads.open(currentUser.getId(), request.getContentType(),
+                canonicalExtension(request.getContentType()), request.getSize());
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(session.getId()).toUri();
+        return ResponseEntity.created(location).body(session);
+    }
+
+    @GetMapping("/sessions/{id}")
+    public ResponseEntity<UploadSessionResponse> getSession(CurrentUser currentUser, @PathVariable UUID id) {
+        return ResponseEntity.ok(chunkedUploads.status(currentUser.getId(), id));
+    }
+
+    @PutMapping(path = "/sessions/{id}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionResponse> uploadChunk(
+            CurrentUser currentUser,
+            @PathVariable UUID id,
+            @PathVariable int index,
+            InputStream body
+    ) throws IOException {
+        return ResponseEntity.ok(chunkedUploads.writeChunk(currentUser.getId(), id, index, body));
+    }
+
+    @PostMapping("/sessions/{id}/complete")
+    public ResponseEntity<Map<String, String>> completeSession(CurrentUser currentUser, @PathVariable UUID id) {
+        return record(null, () -> chunkedUploads.complete(currentUser.getId(), id));
+    }
+
+    @DeleteMapping("/sessions/{id}")
+    public ResponseEntity<Void> abortSession(CurrentUser currentUser, @PathVariable UUID id) {
+        chunkedUploads.abort(currentUser.getId(), id);
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<Map<String, String>> record(Long declaredSize, Upload upload) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            UploadStore.Stored stored = upload.run();
+            outcome = stored.deduplicated() ? "deduplicated" : "stored";
+            meterRegistry.summary("clockwrk.files.upload.size").record(stored.sizeBytes());
 
             String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
                     .path("/uploads/")
-                    .path(uniqueFileName)
+                    .path(stored.fileName())
                     .toUriString();
-
-            log.info("File uploaded successfully: {}", uniqueFileName);
-            
+            log.info("File uploaded successfully: {} ({})", stored.fileName(), outcome);
             return ResponseEntity.ok(Map.of("url", fileDownloadUri));
-
+        } catch (ApiException e) {
+            outcome = "rejected";
+            throw e;
         } catch (IOException ex) {
-            log.error("Could not store file: {}", fileName, ex);
+            log.error("Could not store upload of {} bytes", declaredSize, ex);
             throw ApiException.internalError("Could not store file. Please try again!");
+        } finally {
+            sample.stop(meterRegistry.timer("clockwrk.files.upload", "outcome", outcome));
+        }
+    }
+
+    private UploadStore.Stored store(InputStream content, String contentType, String extension) throws IOException {
+        return uploadStore.store(content, contentType, extension, maxFileSize);
+    }
+
+    private void validateType(String contentType) {
+        if (contentType == null || !allowedTypes.contains(contentType)) {
+            throw ApiException.badRequest("File type not allowed. Allowed types: " + String.join(", ", allowedTypes));
         }
     }
 
+    private ApiException fileTooLarge() {
+        return ApiException.badRequest("File size exceeds maximum allowed size of " + (maxFileSize / 1024 / 1024) + "MB");
+    }
+
+    // One extension per type, so the same bytes uploaded as .jpg and .jpeg share a name
+    private static String canonicalExtension(String contentType) {
+        return switch (contentType) {
+            case "image/jpeg" -> ".jpg";
+            case "image/png" -> ".png";
+            case "image/gif" -> ".gif";
+            case "image/webp" -> ".webp";
+            case "image/svg+xml" -> ".svg";
+            default -> throw ApiException.badRequest("File type not allowed");
+        };
+    }
+
     private boolean isExtensionValid(String extension, String contentType) {
         return switch (contentType) {
             case "image/jpeg" -> extension.equals(".jpg") || extension.equals(".jpeg");
@@ -123,4 +230,9 @@ public class FileController {
             default -> false;
         };
     }
+
+    @FunctionalInterface
+    private interface Upload {
+        UploadStore.Stored run() throws IOException;
+    }
 }
@@ -17,10 +17,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.task.clockwrk.clockWork.dtos.HabitRequest;
 import com.task.clockwrk.clockWork.dtos.HabitResponse;
+import com.task.clockwrk.clockWork.dtos.HabitToggleResponse;
 import com.task.clockwrk.clockWork.entity.HabitEntry;
+import com.task.clockwrk.clockWork.entity.SyncEntityType;
+import com.task.clockwrk.clockWork.security.CurrentUser;
+import com.task.clockwrk.clockWork.services.CollectionVersionService;
 import com.task.clockwrk.clockWork.services.HabitService;
 
 import jakarta.validation.Valid;
@@ -32,10 +37,14 @@ import lombok.RequiredArgsConstructor;
 public class HabitController {
 
     private final HabitService habitService;
+    private final CollectionVersionService collectionVersions;
 
+    // Stats depend on entries and roll over at midnight, so both feed the habits ETag
     @GetMapping
-    public ResponseEntity<List<HabitResponse>> getAllHabits() {
-        return ResponseEntity.ok(habitService.getAllHabits());
+    public ResponseEntity<List<HabitResponse>> getAllHabits(CurrentUser currentUser, WebRequest request) {
+        String version = collectionVersions.versionTag(currentUser.getId(), SyncEntityType.HABIT, SyncEntityType.HABIT_ENTRY)
+                + "-" + LocalDate.now();
+        return ConditionalGet.respond(request, version, () -> habitService.getAllHabits(version));
     }
 
     @PostMapping
@@ -64,12 +73,11 @@ public class HabitController {
     }
 
     @PostMapping("/{id}/toggle")
-    public ResponseEntity<Void> toggleHabitEntry(
+    public ResponseEntity<HabitToggleResponse> toggleHabitEntry(
             @PathVariable UUID id,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
     ) {
-        habitService.toggleHabitEntry(id, date);
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(habitService.toggleHabitEntry(id, date));
     }
 
     @GetMapping("/{id}/entries")
@@ -84,8 +92,12 @@ public class HabitController {
     @GetMapping("/entries")
     public ResponseEntity<Map<UUID, Map<LocalDate, HabitEntry>>> getAllHabitEntries(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            CurrentUser currentUser,
+            WebRequest request
     ) {
-        return ResponseEntity.ok(habitService.getAllHabitEntriesForPeriod(startDate, endDate));
+        String version = collectionVersions.versionTag(currentUser.getId(), SyncEntityType.HABIT_ENTRY);
+        return ConditionalGet.respond(request, version,
+                () -> habitService.getAllHabitEntriesForPeriod(startDate, endDate));
     }
 }
@@ -0,0 +1,25 @@
+package com.task.clockwrk.clockWork.controllers;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.task.clockwrk.clockWork.dtos.SyncResponse;
+import com.task.clockwrk.clockWork.services.SyncService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping
+    public ResponseEntity<SyncResponse> sync(@RequestParam(defaultValue = "0") long since) {
+        return ResponseEntity.ok(syncService.getChangesSince(since));
+    }
+}
@@ -14,8 +14,16 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.task.clockwrk.clockWork.dtos.TaskBatchRequest;
+import com.task.clockwrk.clockWork.dtos.TaskBatchResponse;
+import com.task.clockwrk.clockWork.dtos.TaskPageResponse;
+import com.task.clockwrk.clockWork.dtos.TaskQueryRequest;
+import com.task.clockwrk.clockWork.entity.SyncEntityType;
 import com.task.clockwrk.clockWork.entity.Task;
+import com.task.clockwrk.clockWork.security.CurrentUser;
+import com.task.clockwrk.clockWork.services.CollectionVersionService;
 import com.task.clockwrk.clockWork.services.TaskService;
 
 import jakarta.validation.Valid;
@@ -27,10 +35,21 @@ import lombok.RequiredArgsConstructor;
 public class TaskController {
 
     private final TaskService taskService;
+    private final CollectionVersionService collectionVersions;
 
     @GetMapping
-    public ResponseEntity<List<Task>> getAllTasks() {
-        return ResponseEntity.ok(taskService.getAllTasks());
+    public ResponseEntity<List<Task>> getAllTasks(
+            @RequestParam(required = false) Boolean completed,
+            CurrentUser currentUser,
+            WebRequest request
+    ) {
+        String version = collectionVersions.versionTag(currentUser.getId(), SyncEntityType.TASK);
+        return ConditionalGet.respond(request, version, () -> taskService.getAllTasks(completed, version));
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<TaskPageResponse> queryTasks(@Valid TaskQueryRequest request) {
+        return ResponseEntity.ok(taskService.queryTasks(request));
     }
 
     @PostMapping
@@ -46,6 +65,11 @@ public class TaskController {
         return ResponseEntity.ok(taskService.updateTask(id, task));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<TaskBatchResponse> applyBatch(@Valid @RequestBody TaskBatchRequest request) {
+        return ResponseEntity.ok(taskService.applyBatch(request.getOperations()));
+    }
+
     @PatchMapping("/{id}/toggle")
     public ResponseEntity<Void> toggleComplete(@PathVariable UUID id) {
         taskService.toggleComplete(id);
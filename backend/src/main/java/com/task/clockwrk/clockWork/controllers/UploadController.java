@@ -0,0 +1,199 @@
+package com.task.clockwrk.clockWork.controllers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.task.clockwrk.clockWork.services.ImageVariants;
+import com.task.clockwrk.clockWork.services.UploadCache;
+import com.task.clockwrk.clockWork.services.UploadStore;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Serves stored uploads. Content-addressed names never change content, so they are cached by
+ * clients for a year as immutable; older names get a day and revalidate against their ETag.
+ * Single byte ranges are honoured. {@code /uploads/<size>/<name>} serves a thumbnail from
+ * {@link ImageVariants}. Small hot files come from {@link UploadCache}, larger ones
+ * go out through Tomcat's sendfile when the connector supports it. With
+ * {@code file.storage.redirect-downloads}, raster images are redirected to a presigned storage
+ * URL so reads bypass this service; anything else, SVG in particular, is still streamed from here
+ * because the storage cannot send the sandboxing headers.
+ */
+@RestController
+@RequiredArgsConstructor
+public class UploadController {
+
+    private static final Pattern FILE_NAME = Pattern.compile("([A-Za-z0-9-]+)\\.[a-z0-9]+");
+    private static final Pattern CONTENT_HASH = Pattern.compile("c?[0-9a-f]{64}");
+    private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+    private static final String REVALIDATE = CacheControl.maxAge(Duration.ofDays(1)).cachePublic().getHeaderValue();
+    // Uploads may be SVG: never let them run script in our origin
+    private static final String SANDBOX = "default-src 'none'; style-src 'unsafe-inline'; sandbox";
+    // Types that are safe to serve without SANDBOX and nosniff
+    private static final Set<MediaType> REDIRECTABLE = Set.of(
+            MediaType.IMAGE_PNG, MediaType.IMAGE_JPEG, MediaType.IMAGE_GIF, MediaType.parseMediaType("image/webp"));
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final UploadStore uploadStore;
+    private final UploadCache uploadCache;
+    private final ImageVariants imageVariants;
+    private final MeterRegistry meterRegistry;
+
+    // Send clients to the storage's own URL instead of streaming the file through this service
+    @Value("${file.storage.redirect-downloads:false}")
+    private boolean redirectDownloads;
+
+    @Value("${file.storage.presigned-url-ttl:15m}")
+    private Duration presignedUrlTtl;
+
+    @GetMapping("/uploads/{name}")
+    public void serve(@PathVariable String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Matcher fileName = FILE_NAME.matcher(name);
+        if (redirectDownloads && fileName.matches()
+                && MediaTypeFactory.getMediaType(name).filter(REDIRECTABLE::contains).isPresent()) {
+            Optional<URI> location = uploadStore.presignedUrl(name, presignedUrlTtl);
+            if (location.isPresent()) {
+                // The redirect may be reused for as long as the URL stays valid, with a margin
+                response.setHeader(HttpHeaders.CACHE_CONTROL,
+                        CacheControl.maxAge(presignedUrlTtl.dividedBy(2)).cachePrivate().getHeaderValue());
+                response.setHeader(HttpHeaders.LOCATION, location.get().toString());
+                response.setStatus(HttpStatus.FOUND.value());
+                count("redirect");
+                return;
+            }
+        }
+        send(fileName.matches() ? uploadStore.resolve(name) : null, name, fileName, "", request, response);
+    }
+
+    /** A square thumbnail of a stored image, {@code size} pixels a side. */
+    @GetMapping("/uploads/{size:\\d{1,4}}/{name}")
+    public void serveVariant(@PathVariable int size, @PathVariable String name,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Matcher fileName = FILE_NAME.matcher(name);
+        send(fileName.matches() ? imageVariants.variant(name, size) : null, name, fileName, "-" + size, request, response);
+    }
+
+    private void send(Path file, String name, Matcher fileName, String variant,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = file == null ? null : Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            attributes = null;
+        }
+        if (attributes == null || !attributes.isRegularFile()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        long size = attributes.size();
+        boolean contentAddressed = CONTENT_HASH.matcher(fileName.group(1)).matches();
+        String etag = contentAddressed
+                ? "\"" + fileName.group(1) + variant + "\""
+                : "\"" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "-" + Long.toHexString(size) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, contentAddressed ? IMMUTABLE : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader("Content-Security-Policy", SANDBOX);
+        if (ConditionalGet.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        response.setContentType(MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        long start = 0;
+        long end = size;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // A stale If-Range asks for the whole file; so does anything but a single range
+        Matcher single = range == null || (ifRange != null && !ifRange.equals(etag)) ? null : SINGLE_RANGE.matcher(range);
+        if (single != null && single.matches() && !(single.group(1).isEmpty() && single.group(2).isEmpty())) {
+            try {
+                if (single.group(1).isEmpty()) {
+                    start = Math.max(0, size - Long.parseLong(single.group(2)));
+                } else {
+                    start = Long.parseLong(single.group(1));
+                    if (!single.group(2).isEmpty()) {
+                        end = Math.min(size, Long.parseLong(single.group(2)) + 1);
+                    }
+                }
+            } catch (NumberFormatException e) {
+                start = size;
+            }
+            if (start >= end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + size);
+        }
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        byte[] cached = uploadCache.get(variant.isEmpty() ? name : variant.substring(1) + "/" + name, file, size);
+        if (cached != null) {
+            count("memory");
+            response.getOutputStream().write(cached, (int) start, (int) (end - start));
+        } else if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat copies the file to the socket itself once the response is committed
+            count("sendfile");
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+        } else {
+            count("channel");
+            transfer(file, start, end, response.getOutputStream());
+        }
+    }
+
+    private static void transfer(Path file, long start, long end, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long transferred;
+            while (position < end && (transferred = channel.transferTo(position, end - position, target)) > 0) {
+                position += transferred;
+            }
+        }
+    }
+
+    private void count(String source) {
+        meterRegistry.counter("clockwrk.uploads.served", "source", source).increment();
+    }
+}
@@ -1,7 +1,5 @@
 package com.task.clockwrk.clockWork.controllers;
 
-import java.security.Principal;
-
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -13,8 +11,7 @@ import com.task.clockwrk.clockWork.dtos.ChangePasswordRequest;
 import com.task.clockwrk.clockWork.dtos.UpdateProfileRequest;
 import com.task.clockwrk.clockWork.dtos.UserResponse;
 import com.task.clockwrk.clockWork.entity.User;
-import com.task.clockwrk.clockWork.exception.ApiException;
-import com.task.clockwrk.clockWork.repository.UserRepository;
+import com.task.clockwrk.clockWork.security.CurrentUser;
 import com.task.clockwrk.clockWork.services.UserService;
 
 import jakarta.validation.Valid;
@@ -26,39 +23,30 @@ import lombok.RequiredArgsConstructor;
 public class UserController {
 
     private final UserService userService;
-    private final UserRepository userRepository;
 
     @PutMapping("/profile")
     public ResponseEntity<UserResponse> updateProfile(
-            Principal principal,
+            CurrentUser currentUser,
             @Valid @RequestBody UpdateProfileRequest request
     ) {
-        User user = getAuthenticatedUser(principal);
+        User user = currentUser.get();
         User updatedUser = userService.updateProfile(user, request);
         return ResponseEntity.ok(UserResponse.fromEntity(updatedUser));
     }
 
     @PutMapping("/password")
     public ResponseEntity<Void> changePassword(
-            Principal principal,
+            CurrentUser currentUser,
             @Valid @RequestBody ChangePasswordRequest request
     ) {
-        User user = getAuthenticatedUser(principal);
+        User user = currentUser.get();
         userService.changePassword(user, request);
         return ResponseEntity.ok().build();
     }
     
     @GetMapping("/me")
-    public ResponseEntity<UserResponse> getCurrentUser(Principal principal) {
-        User user = getAuthenticatedUser(principal);
+    public ResponseEntity<UserResponse> getCurrentUser(CurrentUser currentUser) {
+        User user = currentUser.get();
         return ResponseEntity.ok(UserResponse.fromEntity(user));
     }
-
-    private User getAuthenticatedUser(Principal principal) {
-        if (principal == null) {
-            throw ApiException.unauthorized("Not authenticated");
-        }
-        return userRepository.findByEmail(principal.getName())
-                .orElseThrow(() -> ApiException.notFound("User not found"));
-    }
 }
@@ -0,0 +1,19 @@
+package com.task.clockwrk.clockWork.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+import com.task.clockwrk.clockWork.entity.SyncEntityType;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CollectionChange {
+    private SyncEntityType collection; // Collection to refetch, conditionally via its ETag
+    private Instant changedAt;
+}
@@ -0,0 +1,19 @@
+package com.task.clockwrk.clockWork.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HabitToggleResponse {
+    private UUID habitId;
+    private LocalDate date;
+    private boolean completed; // State of the day after the toggle
+}
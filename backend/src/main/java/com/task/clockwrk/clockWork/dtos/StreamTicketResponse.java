@@ -0,0 +1,17 @@
+package com.task.clockwrk.clockWork.dtos;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StreamTicketResponse {
+    private String ticket; // Opens one event stream as ?ticket=
+    private Instant expiresAt;
+}
@@ -0,0 +1,29 @@
+package com.task.clockwrk.clockWork.dtos;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.task.clockwrk.clockWork.entity.CustomList;
+import com.task.clockwrk.clockWork.entity.Habit;
+import com.task.clockwrk.clockWork.entity.HabitEntry;
+import com.task.clockwrk.clockWork.entity.SyncTombstone;
+import com.task.clockwrk.clockWork.entity.Task;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncResponse {
+    private long version; // Watermark to send as "since" on the next sync
+    private List<Task> tasks;
+    private List<Habit> habits;
+    private Map<UUID, List<HabitEntry>> habitEntries; // Keyed by habit id
+    private List<CustomList> lists;
+    private List<SyncTombstone> deleted;
+}
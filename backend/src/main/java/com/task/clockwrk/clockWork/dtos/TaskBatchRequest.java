@@ -0,0 +1,20 @@
+package com.task.clockwrk.clockWork.dtos;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskBatchRequest {
+
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 500, message = "A batch must not exceed 500 operations")
+    private List<@Valid TaskOperation> operations;
+}
@@ -0,0 +1,20 @@
+package com.task.clockwrk.clockWork.dtos;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.task.clockwrk.clockWork.entity.Task;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskBatchResponse {
+    private List<Task> saved; // Created tasks first, then updated and toggled ones, in request order
+    private List<UUID> deleted;
+}
@@ -0,0 +1,59 @@
+package com.task.clockwrk.clockWork.dtos;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.task.clockwrk.clockWork.entity.Task;
+import com.task.clockwrk.clockWork.exception.ApiException;
+
+/**
+ * Position of the last task on a page: the value of the sort key and the task id. Clients only see
+ * the Base64 form, so the layout can change without breaking the API contract.
+ */
+public record TaskCursor(TaskSort sort, Integer priority, LocalDate dueDate, Instant createdAt, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static TaskCursor after(TaskSort sort, Task task) {
+        return new TaskCursor(sort, task.getPriority(), task.getDueDate(), task.getCreatedAt(), task.getId());
+    }
+
+    public String encode() {
+        String key = switch (sort) {
+            case PRIORITY -> String.valueOf(priority);
+            case DUE -> dueDate != null ? dueDate.toString() : "";
+            case CREATED -> createdAt.toString();
+        };
+        String raw = sort.name() + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor decode(String cursor, TaskSort expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                throw ApiException.badRequest("Invalid cursor");
+            }
+
+            TaskSort sort = TaskSort.valueOf(parts[0]);
+            if (sort != expectedSort) {
+                throw ApiException.badRequest("Cursor does not match the requested sort order");
+            }
+
+            UUID id = UUID.fromString(parts[2]);
+            return switch (sort) {
+                case PRIORITY -> new TaskCursor(sort, Integer.valueOf(parts[1]), null, null, id);
+                case DUE -> new TaskCursor(sort, null, parts[1].isEmpty() ? null : LocalDate.parse(parts[1]), null, id);
+                case CREATED -> new TaskCursor(sort, null, null, Instant.parse(parts[1]), id);
+            };
+        } catch (ApiException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw ApiException.badRequest("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.task.clockwrk.clockWork.dtos;
+
+import java.util.UUID;
+
+import com.task.clockwrk.clockWork.entity.Task;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a task batch. CREATE takes {@code task}, UPDATE takes {@code id} and {@code task},
+ * TOGGLE and DELETE take {@code id}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskOperation {
+
+    public enum Type {
+        CREATE, UPDATE, TOGGLE, DELETE
+    }
+
+    @NotNull(message = "Operation type is required")
+    private Type type;
+
+    private UUID id;
+
+    @Valid
+    private Task task;
+}
@@ -0,0 +1,19 @@
+package com.task.clockwrk.clockWork.dtos;
+
+import java.util.List;
+
+import com.task.clockwrk.clockWork.entity.Task;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskPageResponse {
+    private List<Task> items;
+    private String nextCursor; // Null when there are no more pages
+}
@@ -0,0 +1,39 @@
+package com.task.clockwrk.clockWork.dtos;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskQueryRequest {
+
+    private String listName;
+
+    private Boolean completed;
+
+    @Min(value = 0, message = "Priority must be between 0 and 3")
+    @Max(value = 3, message = "Priority must be between 0 and 3")
+    private Integer priority;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueTo;
+
+    private TaskSort sort = TaskSort.CREATED;
+
+    private String cursor; // Opaque value taken from a previous page's nextCursor
+
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 200, message = "Limit must not exceed 200")
+    private Integer limit = 50;
+}
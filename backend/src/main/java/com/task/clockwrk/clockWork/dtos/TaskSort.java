@@ -0,0 +1,23 @@
+package com.task.clockwrk.clockWork.dtos;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Sort orders supported by the paginated task query. Every order ends with the task id so that
+ * rows with equal sort keys still have a stable position for keyset pagination.
+ */
+public enum TaskSort {
+    PRIORITY(Sort.by(Sort.Order.desc("priority"), Sort.Order.asc("id"))),
+    DUE(Sort.by(Sort.Order.asc("dueDate").nullsLast(), Sort.Order.asc("id"))),
+    CREATED(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")));
+
+    private final Sort sort;
+
+    TaskSort(Sort sort) {
+        this.sort = sort;
+    }
+
+    public Sort toSort() {
+        return sort;
+    }
+}
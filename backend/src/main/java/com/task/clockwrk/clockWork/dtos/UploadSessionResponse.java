@@ -0,0 +1,23 @@
+package com.task.clockwrk.clockWork.dtos;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSessionResponse {
+    private UUID id;
+    private long size;
+    private int chunkSize; // Every chunk but the last is exactly this long
+    private int chunkCount;
+    private List<Integer> missingChunks; // What a resumed upload still has to send
+    private Instant expiresAt; // Unless another request arrives first
+}
@@ -4,6 +4,7 @@ import java.time.Instant;
 import java.util.UUID;
 
 import com.task.clockwrk.clockWork.entity.User;
+import com.task.clockwrk.clockWork.services.UploadStore;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,10 +16,14 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class UserResponse {
+    private static final int AVATAR_SIZE = 64;
+
     private UUID id;
     private String email;
     private String name;
     private String profilePictureUrl;
+    // Thumbnail for small avatars: 64px covers the 32px avatar on high-density screens
+    private String avatarUrl;
     private Boolean emailVerified;
     private Instant createdAt;
 
@@ -28,6 +33,7 @@ public class UserResponse {
                 .email(user.getEmail())
                 .name(user.getName())
                 .profilePictureUrl(user.getProfilePictureUrl())
+                .avatarUrl(UploadStore.variantUrl(user.getProfilePictureUrl(), AVATAR_SIZE))
                 .emailVerified(user.getEmailVerified())
                 .createdAt(user.getCreatedAt())
                 .build();
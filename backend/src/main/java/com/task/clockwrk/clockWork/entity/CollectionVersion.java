@@ -0,0 +1,43 @@
+package com.task.clockwrk.clockWork.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Change counter of one user's collection (tasks, habits, habit entries or lists). Every mutation
+ * of the collection moves it forward, so it can serve as the collection's ETag.
+ */
+@Entity
+@Table(name = "collection_versions")
+@IdClass(CollectionVersion.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CollectionVersion {
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "collection", length = 20)
+    private SyncEntityType collection;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID userId;
+        private SyncEntityType collection;
+    }
+}
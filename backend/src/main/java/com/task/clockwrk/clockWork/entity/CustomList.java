@@ -8,14 +8,16 @@ import lombok.NoArgsConstructor;
 import java.util.UUID;
 
 @Entity
-@Table(name = "custom_lists")
+@Table(name = "custom_lists", indexes = {
+    @Index(name = "idx_custom_lists_user_change_version", columnList = "user_id, change_version")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class CustomList {
     @Id
-    @GeneratedValue
+    @TimeOrderedId
     private UUID id;
 
     @Column(nullable = false)
@@ -25,4 +27,7 @@ public class CustomList {
     @JoinColumn(name = "user_id", nullable = false)
     @com.fasterxml.jackson.annotation.JsonIgnore
     private User user;
+
+    @Column(name = "change_version", insertable = false, updatable = false)
+    private Long changeVersion; // Stamped by the database on every insert and update
 }
\ No newline at end of file
@@ -10,14 +10,17 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "habits")
+@Table(name = "habits", indexes = {
+    @Index(name = "idx_habits_user_archived", columnList = "user_id, archived"),
+    @Index(name = "idx_habits_user_change_version", columnList = "user_id, change_version")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Habit {
     @Id
-    @GeneratedValue
+    @TimeOrderedId
     private UUID id;
 
     @Column(nullable = false)
@@ -46,4 +49,7 @@ public class Habit {
 
     @Builder.Default
     private Instant createdAt = Instant.now();
+
+    @Column(name = "change_version", insertable = false, updatable = false)
+    private Long changeVersion; // Stamped by the database on every insert and update
 }
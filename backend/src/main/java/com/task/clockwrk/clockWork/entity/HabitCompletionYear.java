@@ -0,0 +1,42 @@
+package com.task.clockwrk.clockWork.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Compact completion history: one row per habit and year holding a 366-bit day bitmap, see
+ * {@code HabitCompletionBitmap}. Derived from {@link HabitEntry} rows and kept in step by toggles.
+ */
+@Entity
+@Table(name = "habit_completion_years")
+@IdClass(HabitCompletionYear.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HabitCompletionYear {
+    @Id
+    @Column(name = "habit_id")
+    private UUID habitId;
+
+    @Id
+    @Column(name = "year")
+    private int year;
+
+    @Column(nullable = false)
+    private byte[] bits;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID habitId;
+        private int year;
+    }
+}
@@ -13,6 +13,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "habit_entries", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"habit_id", "date"})
+}, indexes = {
+    @Index(name = "idx_habit_entries_habit_change_version", columnList = "habit_id, change_version")
 })
 @Data
 @NoArgsConstructor
@@ -20,7 +22,7 @@ import java.util.UUID;
 @Builder
 public class HabitEntry {
     @Id
-    @GeneratedValue
+    @TimeOrderedId
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -42,4 +44,7 @@ public class HabitEntry {
     private Instant createdAt = Instant.now();
 
     private Instant completedAt;
+
+    @Column(name = "change_version", insertable = false, updatable = false)
+    private Long changeVersion; // Stamped by the database on every insert and update
 }
@@ -0,0 +1,45 @@
+package com.task.clockwrk.clockWork.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Persisted statistics for one habit, as of a given day. Kept up to date by toggles and rolled
+ * over to the next day by {@code HabitStatsRolloverJob}.
+ */
+@Entity
+@Table(name = "habit_stats", indexes = {
+    @Index(name = "idx_habit_stats_as_of", columnList = "as_of")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HabitStatsSnapshot {
+    @Id
+    @Column(name = "habit_id")
+    private UUID habitId;
+
+    private int currentStreak;
+
+    private int longestStreak;
+
+    private int totalCompletions;
+
+    private int completionsThisWeek;
+
+    private int completionsThisMonth;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDate asOf; // Day the streak and period counters were computed for
+
+    @Builder.Default
+    private Instant updatedAt = Instant.now();
+}
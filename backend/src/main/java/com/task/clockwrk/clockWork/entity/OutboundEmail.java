@@ -0,0 +1,57 @@
+package com.task.clockwrk.clockWork.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Mail waiting in the outbox. Rows are written in the transaction of the request that wants the
+ * mail sent and delivered later by {@link com.task.clockwrk.clockWork.services.EmailDispatcher}.
+ */
+@Entity
+@Table(name = "outbound_emails", indexes = {
+    @Index(name = "idx_outbound_emails_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboundEmail {
+    @Id
+    @TimeOrderedId
+    private UUID id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private OutboundEmailStatus status = OutboundEmailStatus.PENDING;
+
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    @Builder.Default
+    private Instant nextAttemptAt = Instant.now();
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+
+    private Instant sentAt;
+}
@@ -0,0 +1,8 @@
+package com.task.clockwrk.clockWork.entity;
+
+public enum OutboundEmailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
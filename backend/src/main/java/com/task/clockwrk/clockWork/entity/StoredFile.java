@@ -0,0 +1,44 @@
+package com.task.clockwrk.clockWork.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * An uploaded file, stored once however many times it is uploaded. The reference count tracks
+ * how many profiles point at it; unreferenced files are collected by
+ * {@link com.task.clockwrk.clockWork.services.UploadStore} after a grace period.
+ */
+@Entity
+@Table(name = "stored_files")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoredFile {
+    @Id
+    @Column(length = 65)
+    private String hash; // Hex SHA-256 of the content, or "c" and the chunk-hash tree of a chunked upload
+
+    @Column(name = "file_name", nullable = false, length = 80)
+    private String fileName; // Hash plus the extension of the first upload
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "released_at")
+    private Instant releasedAt; // Last time the file was uploaded or lost its last reference
+}
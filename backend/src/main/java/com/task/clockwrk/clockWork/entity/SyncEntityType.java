@@ -0,0 +1,8 @@
+package com.task.clockwrk.clockWork.entity;
+
+public enum SyncEntityType {
+    TASK,
+    HABIT,
+    HABIT_ENTRY,
+    CUSTOM_LIST
+}
@@ -0,0 +1,44 @@
+package com.task.clockwrk.clockWork.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Record of a deleted row, kept so that delta sync can tell clients to drop it.
+ */
+@Entity
+@Table(name = "sync_tombstones", indexes = {
+    @Index(name = "idx_sync_tombstones_user_version", columnList = "user_id, change_version")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncTombstone {
+    @Id
+    @TimeOrderedId
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private SyncEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private UUID entityId;
+
+    @Builder.Default
+    private Instant deletedAt = Instant.now();
+
+    @Column(name = "change_version", insertable = false, updatable = false)
+    private Long changeVersion; // Stamped by the database on every insert and update
+}
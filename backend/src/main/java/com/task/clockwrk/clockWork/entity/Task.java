@@ -10,14 +10,20 @@ import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+    @Index(name = "idx_tasks_user_due_date", columnList = "user_id, due_date"),
+    @Index(name = "idx_tasks_user_start_time", columnList = "user_id, start_time"),
+    @Index(name = "idx_tasks_user_created_at", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_tasks_user_priority", columnList = "user_id, priority DESC, id"),
+    @Index(name = "idx_tasks_user_change_version", columnList = "user_id, change_version")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Task {
     @Id
-    @GeneratedValue
+    @TimeOrderedId
     private UUID id;
 
     @Column(nullable = false)
@@ -56,4 +62,7 @@ public class Task {
 
     @Builder.Default
     private Instant createdAt = Instant.now();
+
+    @Column(name = "change_version", insertable = false, updatable = false)
+    private Long changeVersion; // Stamped by the database on every insert and update
 }
@@ -0,0 +1,18 @@
+package com.task.clockwrk.clockWork.entity;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Assigns a {@link UuidV7} to new rows. Consecutive inserts land next to each other in the primary
+ * key index instead of on random leaf pages. Rows created with random v4 ids keep them.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+}
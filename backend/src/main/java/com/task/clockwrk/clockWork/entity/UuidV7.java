@@ -0,0 +1,49 @@
+package com.task.clockwrk.clockWork.entity;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs as specified in RFC 9562: a 48-bit millisecond timestamp, a 12-bit counter
+ * and 62 random bits. Values created by this JVM strictly increase; when more than 4096 ids are
+ * requested within one millisecond the counter carries into the timestamp.
+ */
+public final class UuidV7 {
+
+    private static final long COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    // A fresh millisecond starts the counter in its lower half so bursts have room to count up
+    private static final int COUNTER_SEED_BOUND = 1 << (COUNTER_BITS - 1);
+
+    // Timestamp and counter of the last id handed out, as (millis << 12) | counter
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID generate() {
+        long seeded = (System.currentTimeMillis() << COUNTER_BITS)
+                | ThreadLocalRandom.current().nextInt(COUNTER_SEED_BOUND);
+        long state = LAST.accumulateAndGet(seeded, (last, candidate) -> Math.max(last + 1, candidate));
+        return build(state >>> COUNTER_BITS, state & COUNTER_MASK, ThreadLocalRandom.current().nextLong());
+    }
+
+    /** Builds an id for the given instant without the ordering guarantee, e.g. for backfilled data. */
+    public static UUID at(long epochMillis, long randomBits) {
+        return build(epochMillis, randomBits >>> 52, randomBits);
+    }
+
+    public static long timestamp(UUID id) {
+        if (id.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + id);
+        }
+        return id.getMostSignificantBits() >>> 16;
+    }
+
+    private static UUID build(long millis, long counter, long randomBits) {
+        long msb = (millis << 16) | 0x7000L | (counter & COUNTER_MASK);
+        long lsb = (randomBits & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+}
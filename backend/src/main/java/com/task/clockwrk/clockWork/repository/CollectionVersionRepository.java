@@ -0,0 +1,24 @@
+package com.task.clockwrk.clockWork.repository;
+
+import com.task.clockwrk.clockWork.entity.CollectionVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CollectionVersionRepository extends JpaRepository<CollectionVersion, CollectionVersion.Key> {
+    List<CollectionVersion> findByUserId(UUID userId);
+
+    // Values come from the change version sequence, so a counter never repeats an earlier ETag
+    @Modifying
+    @Query(value = """
+            INSERT INTO collection_versions (user_id, collection, version)
+            VALUES (:userId, :collection, nextval('change_version_seq'))
+            ON CONFLICT (user_id, collection) DO UPDATE SET version = EXCLUDED.version
+            """, nativeQuery = true)
+    void bump(UUID userId, String collection);
+}
@@ -0,0 +1,22 @@
+package com.task.clockwrk.clockWork.repository;
+
+import com.task.clockwrk.clockWork.entity.HabitCompletionYear;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface HabitCompletionYearRepository extends JpaRepository<HabitCompletionYear, HabitCompletionYear.Key> {
+    List<HabitCompletionYear> findByHabitIdAndYearBetween(UUID habitId, int fromYear, int toYear);
+
+    void deleteByHabitId(UUID habitId);
+
+    @Query("""
+            SELECT y FROM HabitCompletionYear y, Habit h
+            WHERE h.id = y.habitId AND h.user.id = :userId AND y.year BETWEEN :fromYear AND :toYear
+            """)
+    List<HabitCompletionYear> findByUserIdAndYearBetween(UUID userId, int fromYear, int toYear);
+}
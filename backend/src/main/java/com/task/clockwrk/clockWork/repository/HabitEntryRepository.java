@@ -2,7 +2,9 @@ package com.task.clockwrk.clockWork.repository;
 
 import com.task.clockwrk.clockWork.entity.HabitEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -14,4 +16,39 @@ public interface HabitEntryRepository extends JpaRepository<HabitEntry, UUID> {
     List<HabitEntry> findByHabitIdAndDateBetween(UUID habitId, LocalDate startDate, LocalDate endDate);
     Optional<HabitEntry> findByHabitIdAndDate(UUID habitId, LocalDate date);
     List<HabitEntry> findByHabitUserIdAndDateBetween(UUID userId, LocalDate startDate, LocalDate endDate);
+    List<HabitEntry> findByHabitUserIdAndChangeVersionGreaterThanEqual(UUID userId, long changeVersion);
+
+    /**
+     * Marks the day completed, or flips an existing entry, in a single statement. The same statement
+     * flips the day in the habit's completion bitmap, creating the bitmap of a year that has none yet
+     * (46 zero bytes, see HabitCompletionBitmap), and bumps the user's habit entry collection
+     * version. The caller refreshes the stats snapshot from the bitmap in the same transaction.
+     * Returns the new state, or nothing if the habit does not belong to the user.
+     */
+    @Transactional
+    @Query(value = """
+            WITH toggled AS (
+                INSERT INTO habit_entries (id, habit_id, date, completed, count, created_at, completed_at)
+                SELECT :id, h.id, :date, true, 1, now(), now()
+                FROM habits h
+                WHERE h.id = :habitId AND h.user_id = :userId
+                ON CONFLICT (habit_id, date) DO UPDATE
+                SET completed = NOT habit_entries.completed,
+                    completed_at = CASE WHEN habit_entries.completed THEN NULL ELSE now() END
+                RETURNING habit_id, completed
+            ), bitmap AS (
+                INSERT INTO habit_completion_years (habit_id, year, bits)
+                SELECT t.habit_id, :year,
+                       set_bit(decode(repeat('00', 46), 'hex'), :dayIndex, CASE WHEN t.completed THEN 1 ELSE 0 END)
+                FROM toggled t
+                ON CONFLICT (habit_id, year) DO UPDATE
+                SET bits = set_bit(habit_completion_years.bits, :dayIndex, get_bit(EXCLUDED.bits, :dayIndex))
+            ), versions AS (
+                INSERT INTO collection_versions (user_id, collection, version)
+                SELECT :userId, 'HABIT_ENTRY', nextval('change_version_seq') FROM toggled
+                ON CONFLICT (user_id, collection) DO UPDATE SET version = EXCLUDED.version
+            )
+            SELECT completed FROM toggled
+            """, nativeQuery = true)
+    Optional<Boolean> toggle(UUID id, UUID habitId, UUID userId, LocalDate date, int year, int dayIndex);
 }
@@ -5,10 +5,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface HabitRepository extends JpaRepository<Habit, UUID> {
+    Optional<Habit> findByIdAndUserId(UUID id, UUID userId);
     List<Habit> findByUserIdAndArchivedFalse(UUID userId);
     List<Habit> findByUserId(UUID userId);
+    List<Habit> findByUserIdAndChangeVersionGreaterThanEqual(UUID userId, long changeVersion);
 }
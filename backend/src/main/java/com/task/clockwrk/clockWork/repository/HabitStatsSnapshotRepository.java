@@ -0,0 +1,14 @@
+package com.task.clockwrk.clockWork.repository;
+
+import com.task.clockwrk.clockWork.entity.HabitStatsSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface HabitStatsSnapshotRepository extends JpaRepository<HabitStatsSnapshot, UUID> {
+    List<HabitStatsSnapshot> findTop500ByAsOfBefore(LocalDate date);
+}
@@ -0,0 +1,32 @@
+package com.task.clockwrk.clockWork.repository;
+
+import com.task.clockwrk.clockWork.entity.OutboundEmail;
+import com.task.clockwrk.clockWork.entity.OutboundEmailStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, UUID> {
+
+    /**
+     * Locks up to {@code limit} mails that are due. Pending mails and mails whose send lease has
+     * run out both qualify; rows locked by another dispatcher are skipped rather than waited on.
+     */
+    @Query(value = """
+            SELECT * FROM outbound_emails
+            WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboundEmail> lockDue(Instant now, int limit);
+
+    @Modifying
+    @Query("DELETE FROM OutboundEmail m WHERE m.status IN :statuses AND m.createdAt < :before")
+    int deleteByStatusCreatedBefore(Collection<OutboundEmailStatus> statuses, Instant before);
+}
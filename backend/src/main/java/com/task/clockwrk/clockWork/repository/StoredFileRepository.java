@@ -0,0 +1,56 @@
+package com.task.clockwrk.clockWork.repository;
+
+import com.task.clockwrk.clockWork.entity.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    /**
+     * Records an upload and returns the name the content is stored under, which is the name of
+     * the first upload of the same bytes. An unreferenced file gets a fresh grace period, so the
+     * collector cannot delete it while the upload is still being attached.
+     */
+    @Transactional
+    @Query(value = """
+            INSERT INTO stored_files (hash, file_name, content_type, size_bytes, ref_count, created_at, released_at)
+            VALUES (:hash, :fileName, :contentType, :sizeBytes, 0, now(), now())
+            ON CONFLICT (hash) DO UPDATE SET released_at = CASE
+                WHEN stored_files.ref_count = 0 THEN now() ELSE stored_files.released_at END
+            RETURNING file_name
+            """, nativeQuery = true)
+    String registerUpload(String hash, String fileName, String contentType, long sizeBytes);
+
+    @Modifying
+    @Query(value = """
+            UPDATE stored_files SET ref_count = ref_count + 1, released_at = NULL
+            WHERE hash = :hash
+            """, nativeQuery = true)
+    int retain(String hash);
+
+    @Modifying
+    @Query(value = """
+            UPDATE stored_files SET ref_count = ref_count - 1,
+                released_at = CASE WHEN ref_count = 1 THEN now() ELSE released_at END
+            WHERE hash = :hash AND ref_count > 0
+            """, nativeQuery = true)
+    int release(String hash);
+
+    /**
+     * Locks up to {@code limit} files that have been unreferenced since before {@code cutoff}.
+     * An upload of the same content waits on the lock, so it never races the deletion.
+     */
+    @Query(value = """
+            SELECT * FROM stored_files
+            WHERE ref_count = 0 AND released_at < :cutoff
+            ORDER BY released_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<StoredFile> lockUnreferenced(Instant cutoff, int limit);
+}
@@ -0,0 +1,18 @@
+package com.task.clockwrk.clockWork.repository;
+
+import com.task.clockwrk.clockWork.entity.SyncTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, UUID> {
+    List<SyncTombstone> findByUserIdAndChangeVersionGreaterThanEqual(UUID userId, long changeVersion);
+
+    // Every change version below this belongs to a committed or rolled back transaction
+    @Query(value = "SELECT change_version_watermark()", nativeQuery = true)
+    long changeVersionWatermark();
+}
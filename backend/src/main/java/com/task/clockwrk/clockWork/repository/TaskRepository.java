@@ -2,10 +2,33 @@ package com.task.clockwrk.clockWork.repository;
 
 import com.task.clockwrk.clockWork.entity.Task;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface TaskRepository extends JpaRepository<Task, UUID> {
+public interface TaskRepository extends JpaRepository<Task, UUID>, JpaSpecificationExecutor<Task> {
+    Optional<Task> findByIdAndUserId(UUID id, UUID userId);
     List<Task> findByUserId(UUID userId);
-    List<Task> findByUserIdAndCompleted(UUID userId, boolean completed);
+    List<Task> findByUserIdAndChangeVersionGreaterThanEqual(UUID userId, long changeVersion);
+    List<Task> findByUserIdAndIdIn(UUID userId, Collection<UUID> ids);
+
+    /**
+     * Calendar range lookup. A task with a due date is matched on that date; a task without one
+     * is matched on its start time, which must fall in [rangeStart, rangeEnd). Each branch of the
+     * OR is served by its own (user_id, ...) index.
+     */
+    @Query("""
+            SELECT t FROM Task t
+            WHERE t.user.id = :userId
+              AND ((t.dueDate BETWEEN :startDate AND :endDate)
+                OR (t.dueDate IS NULL AND t.startTime >= :rangeStart AND t.startTime < :rangeEnd))
+            """)
+    List<Task> findInCalendarRange(UUID userId, LocalDate startDate, LocalDate endDate,
+                                   Instant rangeStart, Instant rangeEnd);
 }
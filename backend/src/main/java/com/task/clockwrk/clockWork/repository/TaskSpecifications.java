@@ -0,0 +1,87 @@
+package com.task.clockwrk.clockWork.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.task.clockwrk.clockWork.entity.Task;
+import com.task.clockwrk.clockWork.dtos.TaskCursor;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Query building blocks for the filtered task listing.
+ */
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> ownedBy(UUID userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<Task> inList(String listName) {
+        return (root, query, cb) -> cb.equal(root.get("listName"), listName);
+    }
+
+    public static Specification<Task> completed(boolean completed) {
+        return (root, query, cb) -> cb.equal(root.get("completed"), completed);
+    }
+
+    public static Specification<Task> withPriority(int priority) {
+        return (root, query, cb) -> cb.equal(root.get("priority"), priority);
+    }
+
+    public static Specification<Task> dueOnOrAfter(LocalDate date) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dueDate"), date);
+    }
+
+    public static Specification<Task> dueOnOrBefore(LocalDate date) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("dueDate"), date);
+    }
+
+    /**
+     * Keyset predicate selecting the rows that come strictly after the cursor in the cursor's sort
+     * order. Must stay in line with {@link TaskSort}.
+     */
+    public static Specification<Task> after(TaskCursor cursor) {
+        return (root, query, cb) -> {
+            Path<UUID> id = root.get("id");
+            return switch (cursor.sort()) {
+                case PRIORITY -> {
+                    Path<Integer> priority = root.get("priority");
+                    yield cb.or(
+                            cb.lessThan(priority, cursor.priority()),
+                            cb.and(cb.equal(priority, cursor.priority()), cb.greaterThan(id, cursor.id())));
+                }
+                case DUE -> afterDueDate(root, cb, cursor);
+                case CREATED -> {
+                    Path<Instant> createdAt = root.get("createdAt");
+                    yield cb.or(
+                            cb.lessThan(createdAt, cursor.createdAt()),
+                            cb.and(cb.equal(createdAt, cursor.createdAt()), cb.lessThan(id, cursor.id())));
+                }
+            };
+        };
+    }
+
+    // Due dates sort ascending with nulls last, so every undated task follows every dated one
+    private static Predicate afterDueDate(Root<Task> root, CriteriaBuilder cb, TaskCursor cursor) {
+        Path<LocalDate> dueDate = root.get("dueDate");
+        Path<UUID> id = root.get("id");
+
+        if (cursor.dueDate() == null) {
+            return cb.and(cb.isNull(dueDate), cb.greaterThan(id, cursor.id()));
+        }
+        return cb.or(
+                cb.greaterThan(dueDate, cursor.dueDate()),
+                cb.and(cb.equal(dueDate, cursor.dueDate()), cb.greaterThan(id, cursor.id())),
+                cb.isNull(dueDate));
+    }
+}
@@ -0,0 +1,33 @@
+package com.task.clockwrk.clockWork.security;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Principal built from the claims of a verified access token. Carries the user id so that
+ * authenticated requests do not need to look the user up by email.
+ */
+public record AuthenticatedUser(
+        UUID id,
+        String email,
+        Collection<? extends GrantedAuthority> authorities
+) implements UserDetails {
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
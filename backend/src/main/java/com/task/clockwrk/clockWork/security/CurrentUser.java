@@ -0,0 +1,61 @@
+package com.task.clockwrk.clockWork.security;
+
+import java.util.UUID;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import com.task.clockwrk.clockWork.entity.User;
+import com.task.clockwrk.clockWork.exception.ApiException;
+import com.task.clockwrk.clockWork.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The caller of the current request. The id comes from the token claims, so most requests never
+ * touch the users table; the full entity is loaded at most once, and only when asked for. Tokens
+ * issued before the user id claim existed never get this far: they carry no type either, so the
+ * filter answers them with X-Token-Expired and the client trades its refresh token for a new one.
+ */
+@Component
+@RequestScope
+@RequiredArgsConstructor
+public class CurrentUser {
+
+    private final UserRepository userRepository;
+
+    private UUID id;
+    private User user;
+
+    public UUID getId() {
+        if (id == null) {
+            id = principal().id();
+        }
+        return id;
+    }
+
+    /**
+     * A lazy reference for setting the owner of new rows, without loading the user.
+     */
+    public User getReference() {
+        return user != null ? user : userRepository.getReferenceById(getId());
+    }
+
+    public User get() {
+        if (user == null) {
+            user = userRepository.findById(getId())
+                    .orElseThrow(() -> ApiException.notFound("User not found"));
+        }
+        return user;
+    }
+
+    private AuthenticatedUser principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser principal)) {
+            throw ApiException.unauthorized("Not authenticated");
+        }
+        return principal;
+    }
+}
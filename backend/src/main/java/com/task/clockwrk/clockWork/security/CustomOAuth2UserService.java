@@ -14,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.task.clockwrk.clockWork.entity.User;
 import com.task.clockwrk.clockWork.repository.UserRepository;
+import com.task.clockwrk.clockWork.services.UploadStore;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +29,7 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UploadStore uploadStore;
 
     @Override
     @Transactional
@@ -53,6 +55,7 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
             User user = existingUser.get();
             // Update profile picture if changed
             if (picture != null && !picture.equals(user.getProfilePictureUrl())) {
+                uploadStore.release(user.getProfilePictureUrl());
                 user.setProfilePictureUrl(picture);
                 userRepository.save(user);
                 log.debug("Updated profile picture for OAuth user: {}", email);
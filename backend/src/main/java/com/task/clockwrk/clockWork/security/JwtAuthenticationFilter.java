@@ -6,13 +6,13 @@ import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException;
 import jakarta.servlet.FilterChain;
@@ -27,8 +27,14 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // EventSource cannot send headers, so the event stream is opened with a one-time ticket instead
+    private static final String EVENT_STREAM_PATH = "/api/events";
+    private static final String TICKET_PARAMETER = "ticket";
+
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final UserRevocationChecker revocationChecker;
+    private final StreamTickets streamTickets;
+    private final MeterRegistry meterRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -37,46 +43,97 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
         
-        final String authHeader = request.getHeader("Authorization");
+        final String jwt = resolveToken(request);
         
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (jwt == null) {
+            String ticket = EVENT_STREAM_PATH.equals(request.getServletPath())
+                    ? request.getParameter(TICKET_PARAMETER) : null;
+            if (ticket != null && !ticket.isBlank() && SecurityContextHolder.getContext().getAuthentication() == null) {
+                redeemTicket(request, ticket);
+            }
             filterChain.doFilter(request, response);
             return;
         }
         
-        final String jwt = authHeader.substring(7);
-        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "skipped";
         try {
-            final String userEmail = jwtService.extractUsername(jwt);
-            
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                VerifiedToken token = jwtService.verify(jwt);
+                UserDetails userDetails = token.isAccessToken() ? resolvePrincipal(token) : null;
                 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request)
-                    );
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                if (!token.isAccessToken()) {
+                    outcome = "wrong_type";
+                    // Issued before tokens had a type: the client trades its refresh token for a new one
+                    if (token.type() == null) {
+                        response.setHeader("X-Token-Expired", "true");
+                    }
+                } else if (userDetails != null) {
+                    authenticate(request, userDetails);
+                    outcome = "authenticated";
+                } else {
+                    outcome = "revoked";
                 }
             }
         } catch (ExpiredJwtException e) {
+            outcome = "expired";
             log.debug("JWT token expired for request to {}", request.getRequestURI());
             response.setHeader("X-Token-Expired", "true");
         } catch (MalformedJwtException e) {
+            outcome = "invalid";
             log.warn("Invalid JWT token format for request to {}", request.getRequestURI());
         } catch (SignatureException e) {
+            outcome = "invalid";
             log.warn("Invalid JWT signature for request to {}", request.getRequestURI());
-        } catch (UsernameNotFoundException e) {
-            log.warn("User not found for JWT token: {}", e.getMessage());
         } catch (Exception e) {
+            outcome = "error";
             log.error("Error processing JWT token for request to {}: {}", request.getRequestURI(), e.getMessage());
         }
+        sample.stop(meterRegistry.timer("clockwrk.auth.filter", "outcome", outcome));
         
         filterChain.doFilter(request, response);
     }
+
+    private String resolveToken(HttpServletRequest request) {
+        final String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return null;
+    }
+
+    private void redeemTicket(HttpServletRequest request, String ticket) {
+        AuthenticatedUser user = streamTickets.redeem(ticket);
+        String outcome;
+        if (user == null) {
+            outcome = "invalid";
+        } else if (!revocationChecker.isActive(user.id())) {
+            outcome = "revoked";
+        } else {
+            authenticate(request, user);
+            outcome = "authenticated";
+        }
+        meterRegistry.counter("clockwrk.auth.stream_tickets", "outcome", outcome).increment();
+    }
+
+    private void authenticate(HttpServletRequest request, UserDetails userDetails) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+        authToken.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request)
+        );
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
+    // Access tokens always carry the user id claim, so no database access beyond the revocation check
+    private UserDetails resolvePrincipal(VerifiedToken token) {
+        AuthenticatedUser principal = token.toPrincipal();
+        if (principal == null) {
+            return null;
+        }
+        return revocationChecker.isActive(principal.id()) ? principal : null;
+    }
 }
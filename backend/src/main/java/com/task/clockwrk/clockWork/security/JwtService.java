@@ -1,9 +1,17 @@
 package com.task.clockwrk.clockWork.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 import javax.crypto.SecretKey;
 
@@ -11,14 +19,29 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.task.clockwrk.clockWork.entity.User;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class JwtService {
 
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+    // Refresh tokens carry the same identity, so only this claim tells them apart from access tokens
+    static final String TOKEN_TYPE_CLAIM = "token_type";
+    static final String ACCESS_TOKEN = "access";
+    static final String REFRESH_TOKEN = "refresh";
+    private static final List<String> DEFAULT_ROLES = List.of("USER");
+
     @Value("${jwt.secret-key}")
     private String secretKey;
 
@@ -28,57 +51,100 @@ public class JwtService {
     @Value("${jwt.refresh-token-expiration}")
     private long refreshTokenExpiration;
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    @Value("${jwt.verification-cache-size:10000}")
+    private long verificationCacheSize;
+
+    private SecretKey signInKey;
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parser().verifyWith(signInKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verificationCacheSize)
+                .expireAfter(Expiry.creating((String digest, VerifiedToken token) -> token.expiresAt() == null
+                        ? Duration.ofMillis(accessTokenExpiration)
+                        : Duration.between(Instant.now(), token.expiresAt())))
+                .build();
+    }
+
+    /**
+     * Checks the signature and expiry of a token and returns its claims. A token verified recently
+     * is served from a cache keyed by its SHA-256 digest, so repeat requests skip the HMAC and the
+     * JSON parse. Throws the usual {@link io.jsonwebtoken.JwtException} subtypes for bad tokens.
+     */
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            return cached;
+        }
+
+        VerifiedToken verified = toVerifiedToken(parser.parseSignedClaims(token).getPayload());
+        verifiedTokens.put(digest, verified);
+        return verified;
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public String extractUsername(String token) {
+        return verify(token).subject();
     }
 
-    public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails, accessTokenExpiration);
+    public String generateToken(User user) {
+        return generateToken(identityClaims(user, ACCESS_TOKEN), user.getEmail(), accessTokenExpiration);
     }
 
-    public String generateRefreshToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails, refreshTokenExpiration);
+    public String generateRefreshToken(User user) {
+        Map<String, Object> claims = identityClaims(user, REFRESH_TOKEN);
+        // Stored with a unique constraint; without an id two logins in the same second mint the same token
+        claims.put(Claims.ID, UUID.randomUUID().toString());
+        return generateToken(claims, user.getEmail(), refreshTokenExpiration);
     }
 
-    public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
+    public String generateToken(Map<String, Object> extraClaims, String subject, long expiration) {
         return Jwts.builder()
                 .claims(extraClaims)
-                .subject(userDetails.getUsername())
+                .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), Jwts.SIG.HS256)
+                .signWith(signInKey, Jwts.SIG.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        VerifiedToken verified = verify(token);
+        return userDetails.getUsername().equals(verified.subject()) && !verified.isExpired(Instant.now());
     }
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        Collection<?> roles = claims.get(ROLES_CLAIM, Collection.class);
+        return new VerifiedToken(
+                claims.getSubject(),
+                userId != null ? UUID.fromString(userId) : null,
+                roles != null ? roles.stream().map(String::valueOf).toList() : DEFAULT_ROLES,
+                claims.get(TOKEN_TYPE_CLAIM, String.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+        );
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private Map<String, Object> identityClaims(User user, String type) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId().toString());
+        claims.put(ROLES_CLAIM, DEFAULT_ROLES);
+        claims.put(TOKEN_TYPE_CLAIM, type);
+        return claims;
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     public long getAccessTokenExpiration() {
@@ -0,0 +1,54 @@
+package com.task.clockwrk.clockWork.security;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.task.clockwrk.clockWork.dtos.StreamTicketResponse;
+
+/**
+ * One-time credentials for opening {@code /api/events}. {@code EventSource} cannot send an
+ * Authorization header, and a token in the URL ends up in access logs and browser history, so
+ * the client trades its access token for a ticket first. A ticket opens one stream, and only
+ * within {@code app.events.ticket-ttl} of being issued. Tickets are kept in memory, like the
+ * streams themselves.
+ */
+@Component
+public class StreamTickets {
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    private static final int TICKET_BYTES = 32;
+
+    private final Cache<String, AuthenticatedUser> tickets;
+    private final Duration ttl;
+
+    public StreamTickets(@Value("${app.events.ticket-ttl:30s}") Duration ttl) {
+        this.ttl = ttl;
+        this.tickets = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    public StreamTicketResponse issue(AuthenticatedUser user) {
+        byte[] random = new byte[TICKET_BYTES];
+        SECURE_RANDOM.nextBytes(random);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        tickets.put(ticket, user);
+        return StreamTicketResponse.builder()
+                .ticket(ticket)
+                .expiresAt(Instant.now().plus(ttl))
+                .build();
+    }
+
+    /** The user the ticket was issued to, or null if it is unknown, expired or already used. */
+    public AuthenticatedUser redeem(String ticket) {
+        return tickets.asMap().remove(ticket);
+    }
+}
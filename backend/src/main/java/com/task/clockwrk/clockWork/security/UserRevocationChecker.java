@@ -0,0 +1,51 @@
+package com.task.clockwrk.clockWork.security;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.task.clockwrk.clockWork.repository.UserRepository;
+
+/**
+ * Check that the user behind a token still exists. Each answer is cached for
+ * {@code jwt.revocation-check-ttl} milliseconds (30 seconds by default), which bounds how long a
+ * deleted account keeps working; a TTL of 0 turns the check off and trusts the token until it
+ * expires.
+ */
+@Component
+public class UserRevocationChecker {
+
+    private final UserRepository userRepository;
+    private final Cache<UUID, Boolean> activeUsers;
+    private final boolean enabled;
+
+    public UserRevocationChecker(
+            UserRepository userRepository,
+            @Value("${jwt.revocation-check-ttl:30000}") long ttlMillis
+    ) {
+        this.userRepository = userRepository;
+        this.enabled = ttlMillis > 0;
+        this.activeUsers = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(Math.max(ttlMillis, 1)))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    public boolean isActive(UUID userId) {
+        if (!enabled) {
+            return true;
+        }
+        Boolean active = activeUsers.getIfPresent(userId);
+        if (active == null) {
+            // Not loaded through get(): a query inside the cache's compute pins a virtual thread to its
+            // carrier while it waits for a connection, and enough of those stall every request
+            active = userRepository.existsById(userId);
+            activeUsers.put(userId, active);
+        }
+        return active;
+    }
+}
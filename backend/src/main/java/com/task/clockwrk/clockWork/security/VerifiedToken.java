@@ -0,0 +1,41 @@
+package com.task.clockwrk.clockWork.security;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Claims of a token whose signature and expiry have already been checked by
+ * {@link JwtService#verify(String)}. {@code userId} is null for tokens issued before the user id
+ * claim existed, {@code type} for tokens issued before access and refresh tokens were told apart.
+ */
+public record VerifiedToken(
+        String subject,
+        UUID userId,
+        List<String> roles,
+        String type,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+
+    public VerifiedToken {
+        roles = List.copyOf(roles);
+    }
+
+    public boolean isAccessToken() {
+        return JwtService.ACCESS_TOKEN.equals(type);
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+
+    public AuthenticatedUser toPrincipal() {
+        if (userId == null || subject == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId, subject, roles.stream().map(SimpleGrantedAuthority::new).toList());
+    }
+}
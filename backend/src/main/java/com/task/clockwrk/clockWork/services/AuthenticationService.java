@@ -5,9 +5,9 @@ import java.time.Instant;
 
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.task.clockwrk.clockWork.dtos.AuthRequest;
 import com.task.clockwrk.clockWork.dtos.AuthResponse;
@@ -19,6 +19,7 @@ import com.task.clockwrk.clockWork.exception.ApiException;
 import com.task.clockwrk.clockWork.repository.RefreshTokenRepository;
 import com.task.clockwrk.clockWork.repository.UserRepository;
 import com.task.clockwrk.clockWork.security.JwtService;
+import com.task.clockwrk.clockWork.security.VerifiedToken;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -39,6 +40,7 @@ public class AuthenticationService {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -61,7 +63,7 @@ public class AuthenticationService {
         user.setOtpExpiry(Instant.now().plusSeconds(OTP_VALIDITY_SECONDS));
         repository.save(user);
         
-        emailService.sendEmail(
+        emailService.queueEmail(
             request.getEmail(), 
             "Welcome to ClockWrk! Verify your account", 
             "Hi " + request.getName() + ",\n\n" +
@@ -82,7 +84,10 @@ public class AuthenticationService {
                 .build();
     }
 
-    @Transactional
+    /**
+     * Checks the password before the transaction starts: BCrypt takes a while, and no database
+     * connection should be held while it runs. Only issuing the tokens, or a new OTP, writes.
+     */
     public AuthResponse authenticate(AuthRequest request) {
         authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
@@ -91,35 +96,37 @@ public class AuthenticationService {
                 )
         );
         
-        var user = repository.findByEmail(request.getEmail())
-                .orElseThrow(() -> ApiException.unauthorized("Invalid credentials"));
-        
-        // Check if email is verified
-        if (!Boolean.TRUE.equals(user.getEmailVerified())) {
-            // Send new OTP for verification
-            String otp = generateSecureOtp();
-            user.setOtp(otp);
-            user.setOtpExpiry(Instant.now().plusSeconds(OTP_VALIDITY_SECONDS));
-            repository.save(user);
-            
-            emailService.sendEmail(
-                user.getEmail(),
-                "Verify your ClockWrk account",
-                "Hi " + user.getName() + ",\n\n" +
-                "Please verify your email to continue:\n\n" +
-                otp + "\n\n" +
-                "This code is valid for 5 minutes.\n\n" +
-                "The ClockWrk Team"
-            );
+        return transactionTemplate.execute(status -> {
+            var user = repository.findByEmail(request.getEmail())
+                    .orElseThrow(() -> ApiException.unauthorized("Invalid credentials"));
             
-            return AuthResponse.builder()
-                    .accessToken(null)
-                    .refreshToken(null)
-                    .requiresVerification(true)
-                    .build();
-        }
+            // Check if email is verified
+            if (!Boolean.TRUE.equals(user.getEmailVerified())) {
+                // Send new OTP for verification
+                String otp = generateSecureOtp();
+                user.setOtp(otp);
+                user.setOtpExpiry(Instant.now().plusSeconds(OTP_VALIDITY_SECONDS));
+                repository.save(user);
                 
-        return generateTokensForUser(user);
+                emailService.queueEmail(
+                    user.getEmail(),
+                    "Verify your ClockWrk account",
+                    "Hi " + user.getName() + ",\n\n" +
+                    "Please verify your email to continue:\n\n" +
+                    otp + "\n\n" +
+                    "This code is valid for 5 minutes.\n\n" +
+                    "The ClockWrk Team"
+                );
+                
+                return AuthResponse.builder()
+                        .accessToken(null)
+                        .refreshToken(null)
+                        .requiresVerification(true)
+                        .build();
+            }
+                    
+            return generateTokensForUser(user);
+        });
     }
 
     @Transactional
@@ -132,7 +139,7 @@ public class AuthenticationService {
         user.setOtpExpiry(Instant.now().plusSeconds(OTP_VALIDITY_SECONDS));
         repository.save(user);
         
-        emailService.sendEmail(
+        emailService.queueEmail(
             email, 
             "Your ClockWrk Login Code", 
             "Hi " + user.getName() + ",\n\n" +
@@ -195,31 +202,22 @@ public class AuthenticationService {
             throw ApiException.badRequest("Refresh token is required");
         }
         
-        String userEmail;
+        // Signature and expiry are checked once here
+        VerifiedToken verified;
         try {
-            userEmail = jwtService.extractUsername(refreshToken);
+            verified = jwtService.verify(refreshToken);
         } catch (Exception e) {
-            throw ApiException.unauthorized("Invalid refresh token");
+            throw ApiException.unauthorized("Refresh token is expired or invalid");
         }
         
-        if (userEmail == null) {
+        String userEmail = verified.subject();
+        if (userEmail == null || verified.isAccessToken()) {
             throw ApiException.unauthorized("Invalid refresh token");
         }
         
         var user = repository.findByEmail(userEmail)
                 .orElseThrow(() -> ApiException.unauthorized("User not found"));
         
-        UserDetails userDetails = org.springframework.security.core.userdetails.User
-                .withUsername(user.getEmail())
-                .password(user.getPasswordHash())
-                .authorities("USER")
-                .build();
-
-        // Check if JWT token is valid
-        if (!jwtService.isTokenValid(refreshToken, userDetails)) {
-            throw ApiException.unauthorized("Refresh token is expired or invalid");
-        }
-        
         // Check if token exists in database and is not revoked/expired
         RefreshToken storedToken = tokenRepository.findByToken(refreshToken)
                 .orElseThrow(() -> ApiException.unauthorized("Refresh token not found"));
@@ -229,7 +227,7 @@ public class AuthenticationService {
         }
         
         // Generate new access token only (keep the same refresh token)
-        var accessToken = jwtService.generateToken(userDetails);
+        var accessToken = jwtService.generateToken(user);
         
         log.info("Token refreshed for user: {}", userEmail);
         
@@ -241,14 +239,8 @@ public class AuthenticationService {
     }
 
     private AuthResponse generateTokensForUser(User user) {
-        UserDetails userDetails = org.springframework.security.core.userdetails.User
-                .withUsername(user.getEmail())
-                .password(user.getPasswordHash())
-                .authorities("USER")
-                .build();
-                
-        var jwtToken = jwtService.generateToken(userDetails);
-        var refreshToken = jwtService.generateRefreshToken(userDetails);
+        var jwtToken = jwtService.generateToken(user);
+        var refreshToken = jwtService.generateRefreshToken(user);
         
         // Revoke old tokens and save new one
         tokenRepository.revokeByUserId(user.getId());
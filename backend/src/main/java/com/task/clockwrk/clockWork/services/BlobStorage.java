@@ -0,0 +1,35 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Where {@link UploadStore} keeps stored files, selected with {@code file.storage.type}:
+ * {@code local} ({@link LocalBlobStorage}, the default) or {@code s3} ({@link S3BlobStorage}).
+ * Keys are store file names; the content under a key never changes.
+ */
+public interface BlobStorage {
+
+    /** Stores a fully written file under {@code key}. The source may be moved instead of copied. */
+    void put(String key, Path source, String contentType) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    /** Copies the blob to {@code target}, which must not exist yet. False when there is no such blob. */
+    boolean download(String key, Path target) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /** Where blobs live on this node's disk, for backends that keep them there. */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    /** A time-limited URL clients can read the blob from directly, for backends that offer one. */
+    default Optional<URI> presignedUrl(String key, Duration ttl) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,299 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.task.clockwrk.clockWork.dtos.CollectionChange;
+import com.task.clockwrk.clockWork.entity.SyncEntityType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes committed collection changes to the user's open event streams. An idle stream costs a
+ * registered {@link SseEmitter} and nothing else: no thread waits on it, and writes happen on a
+ * virtual thread per stream only while it has events queued.
+ * <p>
+ * Every user keeps the last {@code app.events.history-size} events for
+ * {@code app.events.retention} after their last stream closed, so a client that reconnects with
+ * {@code Last-Event-ID} gets exactly what it missed. When that is no longer possible (history
+ * overflowed, the node restarted) the client gets a {@code resync} event and refetches
+ * everything. Streams are local to this node.
+ */
+@Service
+@Slf4j
+public class ChangeStream {
+
+    static final String CHANGE_EVENT = "change";
+    static final String RESYNC_EVENT = "resync";
+
+    private final Map<UUID, Channel> channels = new ConcurrentHashMap<>();
+    // Seeded from the clock so that ids handed out before a restart are always below the new floor
+    private final AtomicLong lastEventId = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private final ExecutorService delivery = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter published;
+    private final Duration streamTimeout;
+    private final Duration retry;
+    private final Duration retention;
+    private final int historySize;
+    private final int maxStreamsPerUser;
+    private final int maxStreams;
+
+    public ChangeStream(
+            MeterRegistry meterRegistry,
+            @Value("${app.events.stream-timeout:30m}") Duration streamTimeout,
+            @Value("${app.events.retry:5s}") Duration retry,
+            @Value("${app.events.retention:10m}") Duration retention,
+            @Value("${app.events.history-size:256}") int historySize,
+            @Value("${app.events.max-streams-per-user:8}") int maxStreamsPerUser,
+            @Value("${app.events.max-streams:20000}") int maxStreams
+    ) {
+        this.streamTimeout = streamTimeout;
+        this.retry = retry;
+        this.retention = retention;
+        this.historySize = historySize;
+        this.maxStreamsPerUser = maxStreamsPerUser;
+        this.maxStreams = maxStreams;
+        this.published = Counter.builder("clockwrk.events.published")
+                .description("Change events recorded for live streams")
+                .register(meterRegistry);
+        Gauge.builder("clockwrk.events.streams", openStreams, AtomicInteger::get)
+                .description("Open event streams")
+                .register(meterRegistry);
+        Gauge.builder("clockwrk.events.channels", channels, Map::size)
+                .description("Users with open streams or retained history")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the user. With a {@code lastEventId} from an earlier stream, the events
+     * after it are replayed first; without one the client is assumed to have just loaded its data.
+     * Empty when the node or the user already has as many streams open as allowed.
+     */
+    public Optional<SseEmitter> subscribe(UUID userId, String lastEventId) {
+        if (openStreams.incrementAndGet() > maxStreams) {
+            openStreams.decrementAndGet();
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Stream stream = new Stream(emitter);
+        Channel channel = register(userId, stream, lastEventId);
+        if (channel == null) {
+            openStreams.decrementAndGet();
+            return Optional.empty();
+        }
+
+        emitter.onCompletion(() -> stream.close(channel));
+        emitter.onTimeout(() -> {
+            stream.close(channel);
+            // Ends the response normally; otherwise the timeout is turned into an error response
+            emitter.complete();
+        });
+        emitter.onError(e -> stream.close(channel));
+        return Optional.of(emitter);
+    }
+
+    @TransactionalEventListener
+    public void onCollectionChanged(CollectionChangedEvent event) {
+        Channel channel = channels.computeIfAbsent(event.userId(), id -> new Channel(lastEventId.get()));
+        synchronized (channel) {
+            // Ids are taken under the lock so that every channel records them in order
+            ChangeEvent change = new ChangeEvent(lastEventId.incrementAndGet(), event.collection(), Instant.now());
+            channel.record(change, historySize);
+            for (Stream stream : channel.streams) {
+                stream.enqueue(change.toSse());
+            }
+        }
+        published.increment();
+    }
+
+    /**
+     * Keeps proxies and load balancers from closing idle streams, surfaces dead connections as
+     * write errors, and forgets the history of users that have not been connected for a while.
+     */
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-interval:25s}")
+    public void heartbeat() {
+        long expiredBefore = System.nanoTime() - retention.toNanos();
+        channels.forEach((userId, channel) -> {
+            synchronized (channel) {
+                if (channel.streams.isEmpty()) {
+                    if (channel.lastActive - expiredBefore < 0) {
+                        channels.remove(userId, channel);
+                    }
+                    return;
+                }
+                channel.lastActive = System.nanoTime();
+                for (Stream stream : channel.streams) {
+                    stream.enqueue(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.values().forEach(channel -> {
+            List<Stream> streams;
+            synchronized (channel) {
+                streams = new ArrayList<>(channel.streams);
+            }
+            streams.forEach(stream -> stream.emitter.complete());
+        });
+        delivery.shutdown();
+    }
+
+    // Null when the user is at the stream limit
+    private Channel register(UUID userId, Stream stream, String lastEventId) {
+        Channel channel = channels.computeIfAbsent(userId, id -> new Channel(this.lastEventId.get()));
+        synchronized (channel) {
+            // A channel dropped by the heartbeat between lookup and lock would never see events
+            if (channels.get(userId) != channel) {
+                return register(userId, stream, lastEventId);
+            }
+            if (channel.streams.size() >= maxStreamsPerUser) {
+                return null;
+            }
+
+            stream.enqueue(SseEmitter.event().reconnectTime(retry.toMillis()).comment("connected"));
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replay(channel, stream, lastEventId.trim());
+            }
+            channel.streams.add(stream);
+            channel.lastActive = System.nanoTime();
+        }
+        return channel;
+    }
+
+    // Caller holds the channel lock
+    private void replay(Channel channel, Stream stream, String lastEventId) {
+        long after;
+        try {
+            after = Long.parseLong(lastEventId);
+        } catch (NumberFormatException e) {
+            after = -1;
+        }
+
+        if (after < channel.floor || after > this.lastEventId.get()) {
+            stream.enqueue(SseEmitter.event().id(String.valueOf(this.lastEventId.get())).name(RESYNC_EVENT).data(""));
+            return;
+        }
+        for (ChangeEvent change : channel.history) {
+            if (change.id() > after) {
+                stream.enqueue(change.toSse());
+            }
+        }
+    }
+
+    private record ChangeEvent(long id, SyncEntityType collection, Instant changedAt) {
+
+        SseEventBuilder toSse() {
+            return SseEmitter.event()
+                    .id(String.valueOf(id))
+                    .name(CHANGE_EVENT)
+                    .data(CollectionChange.builder().collection(collection).changedAt(changedAt).build());
+        }
+    }
+
+    /** Streams and recent events of one user; guarded by its own monitor. */
+    private static final class Channel {
+
+        private final Set<Stream> streams = new HashSet<>();
+        private final Deque<ChangeEvent> history = new ArrayDeque<>();
+        private long floor; // Every event after this id is still in the history
+        private long lastActive = System.nanoTime();
+
+        private Channel(long floor) {
+            this.floor = floor;
+        }
+
+        private void record(ChangeEvent change, int historySize) {
+            history.addLast(change);
+            if (history.size() > historySize) {
+                floor = history.removeFirst().id();
+            }
+            lastActive = System.nanoTime();
+        }
+    }
+
+    /** One open connection. Writes are serialized through a queue drained by one task at a time. */
+    private final class Stream {
+
+        private final SseEmitter emitter;
+        private final Queue<SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Stream(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void enqueue(SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            pending.add(event);
+            if (draining.compareAndSet(false, true)) {
+                delivery.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEventBuilder event;
+                while ((event = pending.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        // The container reports the broken connection through onError/onCompletion
+                        log.debug("Dropping event stream: {}", e.getMessage());
+                        pending.clear();
+                        draining.set(false);
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void close(Channel channel) {
+            if (closed.compareAndSet(false, true)) {
+                pending.clear();
+                synchronized (channel) {
+                    channel.streams.remove(this);
+                    channel.lastActive = System.nanoTime();
+                }
+                openStreams.decrementAndGet();
+            }
+        }
+    }
+}
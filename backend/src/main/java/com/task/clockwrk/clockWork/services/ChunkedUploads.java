@@ -0,0 +1,298 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.task.clockwrk.clockWork.dtos.UploadSessionResponse;
+import com.task.clockwrk.clockWork.exception.ApiException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resumable uploads in fixed-size chunks. A session owns one file in the store's incoming
+ * directory; chunks may arrive in any order and in parallel and are written straight to their
+ * offset, hashed on the way in. Completing the session renames that file into the store, so
+ * the data is written once and never read back.
+ * <p>
+ * A file that fits in one chunk is named by its SHA-256 like any other upload. Larger files are
+ * named by the SHA-256 of their chunk hashes in order, which needs nothing but the chunk hashes,
+ * prefixed with {@value #TREE_HASH_PREFIX}: that hash is also the plain hash of some other byte
+ * string, and the prefix keeps an upload of those bytes from being filed under the same name.
+ * Sessions live in memory and are dropped, with their file, after
+ * {@code file.upload.chunked.session-ttl} without a request.
+ */
+@Service
+@Slf4j
+public class ChunkedUploads {
+
+    static final String TREE_HASH_PREFIX = "c";
+
+    private static final int COPY_BUFFER = 64 * 1024;
+
+    private final UploadStore uploadStore;
+    private final Cache<UUID, Session> sessions;
+    private final long maxSize;
+    private final int chunkSize;
+    private final int maxSessionsPerUser;
+    private final Duration sessionTtl;
+
+    public ChunkedUploads(
+            UploadStore uploadStore,
+            MeterRegistry meterRegistry,
+            @Value("${file.upload.chunked.max-size:100MB}") DataSize maxSize,
+            @Value("${file.upload.chunked.chunk-size:4MB}") DataSize chunkSize,
+            @Value("${file.upload.chunked.max-sessions-per-user:4}") int maxSessionsPerUser,
+            @Value("${file.upload.chunked.session-ttl:24h}") Duration sessionTtl
+    ) {
+        this.uploadStore = uploadStore;
+        this.maxSize = maxSize.toBytes();
+        this.chunkSize = Math.toIntExact(chunkSize.toBytes());
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.sessionTtl = sessionTtl;
+        this.sessions = Caffeine.newBuilder()
+                .expireAfterAccess(sessionTtl)
+                // Expired sessions release their file without waiting for other activity
+                .scheduler(Scheduler.systemScheduler())
+                // Aborted and completed sessions are cleaned up before the request returns
+                .executor(Runnable::run)
+                .removalListener((UUID id, Session session, RemovalCause cause) -> {
+                    if (session != null) {
+                        session.discard();
+                    }
+                })
+                .build();
+        Gauge.builder("clockwrk.files.upload.sessions", sessions, Cache::estimatedSize)
+                .description("Chunked uploads in progress")
+                .register(meterRegistry);
+    }
+
+    public UploadSessionResponse open(UUID userId, String contentType, String extension, long size) throws IOException {
+        if (size <= 0) {
+            throw ApiException.badRequest("Please select a file to upload");
+        }
+        if (size > maxSize) {
+            throw ApiException.badRequest("File size exceeds maximum allowed size of " + (maxSize / 1024 / 1024) + "MB");
+        }
+        long open = sessions.asMap().values().stream().filter(session -> session.userId.equals(userId)).count();
+        if (open >= maxSessionsPerUser) {
+            throw new ApiException("Too many uploads in progress", HttpStatus.TOO_MANY_REQUESTS, "TOO_MANY_UPLOADS");
+        }
+
+        Path part = uploadStore.createIncoming();
+        Session session = new Session(UUID.randomUUID(), userId, contentType, extension, size,
+                Math.toIntExact((size + chunkSize - 1) / chunkSize), part,
+                FileChannel.open(part, StandardOpenOption.WRITE));
+        sessions.put(session.id, session);
+        return describe(session);
+    }
+
+    public UploadSessionResponse status(UUID userId, UUID sessionId) {
+        return describe(owned(userId, sessionId));
+    }
+
+    /**
+     * Writes chunk {@code index} at its offset, hashing it as it is copied. The body must be
+     * exactly one chunk long; only the last chunk may be shorter. Sending a chunk again
+     * replaces it, but not while another request is still writing the same chunk.
+     */
+    public UploadSessionResponse writeChunk(UUID userId, UUID sessionId, int index, InputStream body) throws IOException {
+        Session session = owned(userId, sessionId);
+        if (index < 0 || index >= session.chunkCount) {
+            throw ApiException.badRequest("Chunk index must be between 0 and " + (session.chunkCount - 1));
+        }
+        long offset = (long) index * chunkSize;
+        long expected = Math.min(chunkSize, session.size - offset);
+
+        boolean claimed = false;
+        session.lock.readLock().lock();
+        try {
+            if (session.closed) {
+                throw ApiException.notFound("Upload session not found");
+            }
+            // Two writers of one chunk would interleave their bytes under either one's hash
+            claimed = session.receiving(index);
+            if (!claimed) {
+                throw ApiException.conflict("Chunk " + index + " is already being uploaded");
+            }
+            MessageDigest sha256 = UploadStore.sha256();
+            byte[] buffer = new byte[COPY_BUFFER];
+            long written = 0;
+            int read;
+            // Reading one byte past the chunk tells an oversized chunk from one that fits
+            while ((read = body.read(buffer, 0, (int) Math.min(buffer.length, expected + 1 - written))) > 0) {
+                if (written + read > expected) {
+                    throw ApiException.badRequest("Chunk " + index + " must be " + expected + " bytes");
+                }
+                sha256.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    // Positional writes: chunks of one session are written concurrently
+                    session.channel.write(chunk, offset + written + chunk.position());
+                }
+                written += read;
+            }
+            if (written != expected) {
+                throw ApiException.badRequest("Chunk " + index + " must be " + expected + " bytes");
+            }
+            session.received(index, sha256.digest());
+        } finally {
+            if (claimed) {
+                session.written(index);
+            }
+            session.lock.readLock().unlock();
+        }
+        return describe(session);
+    }
+
+    /** Files the assembled upload in the store once every chunk has arrived. */
+    public UploadStore.Stored complete(UUID userId, UUID sessionId) throws IOException {
+        Session session = owned(userId, sessionId);
+        session.lock.writeLock().lock();
+        try {
+            if (session.closed) {
+                throw ApiException.notFound("Upload session not found");
+            }
+            int missing = session.missing().length;
+            if (missing > 0) {
+                throw ApiException.conflict(missing + " chunks have not been uploaded yet");
+            }
+            session.channel.close();
+            UploadStore.Stored stored = uploadStore.adopt(session.part, session.contentHash(),
+                    session.contentType, session.extension, session.size);
+            session.closed = true;
+            return stored;
+        } finally {
+            session.lock.writeLock().unlock();
+            if (session.closed) {
+                sessions.invalidate(sessionId);
+            }
+        }
+    }
+
+    public void abort(UUID userId, UUID sessionId) {
+        sessions.invalidate(owned(userId, sessionId).id);
+    }
+
+    private Session owned(UUID userId, UUID sessionId) {
+        Session session = sessions.getIfPresent(sessionId);
+        // Someone else's session is reported the same as a missing one
+        if (session == null || !session.userId.equals(userId)) {
+            throw ApiException.notFound("Upload session not found");
+        }
+        return session;
+    }
+
+    private UploadSessionResponse describe(Session session) {
+        return UploadSessionResponse.builder()
+                .id(session.id)
+                .size(session.size)
+                .chunkSize(chunkSize)
+                .chunkCount(session.chunkCount)
+                .missingChunks(IntStream.of(session.missing()).boxed().toList())
+                .expiresAt(Instant.now().plus(sessionTtl))
+                .build();
+    }
+
+    private static final class Session {
+
+        private final UUID id;
+        private final UUID userId;
+        private final String contentType;
+        private final String extension;
+        private final long size;
+        private final int chunkCount;
+        private final Path part;
+        private final FileChannel channel;
+        // Chunk writers share the read lock; completing or discarding takes the write lock
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final BitSet received = new BitSet();
+        private final BitSet writing = new BitSet();
+        private final byte[][] digests;
+        private boolean closed;
+
+        private Session(UUID id, UUID userId, String contentType, String extension, long size, int chunkCount,
+                Path part, FileChannel channel) {
+            this.id = id;
+            this.userId = userId;
+            this.contentType = contentType;
+            this.extension = extension;
+            this.size = size;
+            this.chunkCount = chunkCount;
+            this.part = part;
+            this.channel = channel;
+            this.digests = new byte[chunkCount][];
+        }
+
+        private synchronized boolean receiving(int index) {
+            if (writing.get(index)) {
+                return false;
+            }
+            writing.set(index);
+            // Missing again until the new copy is complete, in case this write fails halfway
+            received.clear(index);
+            return true;
+        }
+
+        private synchronized void written(int index) {
+            writing.clear(index);
+        }
+
+        private synchronized void received(int index, byte[] digest) {
+            digests[index] = digest;
+            received.set(index);
+        }
+
+        private synchronized int[] missing() {
+            return IntStream.range(0, chunkCount).filter(index -> !received.get(index)).toArray();
+        }
+
+        private synchronized String contentHash() {
+            if (chunkCount == 1) {
+                return HexFormat.of().formatHex(digests[0]);
+            }
+            MessageDigest sha256 = UploadStore.sha256();
+            for (byte[] digest : digests) {
+                sha256.update(digest);
+            }
+            return TREE_HASH_PREFIX + HexFormat.of().formatHex(sha256.digest());
+        }
+
+        private void discard() {
+            lock.writeLock().lock();
+            try {
+                closed = true;
+                channel.close();
+                Files.deleteIfExists(part);
+            } catch (IOException e) {
+                log.warn("Could not delete upload part {}", part, e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.util.UUID;
+
+import com.task.clockwrk.clockWork.entity.SyncEntityType;
+
+/**
+ * Published inside the transaction that changed one of a user's collections. Listeners that act
+ * on it outside the database should wait for the commit.
+ */
+public record CollectionChangedEvent(UUID userId, SyncEntityType collection) {
+}
@@ -0,0 +1,63 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.task.clockwrk.clockWork.entity.CollectionVersion;
+import com.task.clockwrk.clockWork.entity.SyncEntityType;
+import com.task.clockwrk.clockWork.repository.CollectionVersionRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Per-user change counters behind the ETags of the collection endpoints. Answering a conditional
+ * GET only reads these counters, never the collections themselves.
+ */
+@Service
+@RequiredArgsConstructor
+public class CollectionVersionService {
+
+    private final CollectionVersionRepository repository;
+    private final ApplicationEventPublisher events;
+
+    /**
+     * Marks the collection as changed. Must run in the transaction that performs the change, so
+     * that a reader never sees the new counter together with the old data.
+     */
+    @Transactional
+    public void bump(UUID userId, SyncEntityType collection) {
+        repository.bump(userId, collection.name());
+        changed(userId, collection);
+    }
+
+    /**
+     * Announces a change whose counter was already bumped in SQL, such as the habit toggle. Live
+     * subscribers hear about it once the surrounding transaction commits.
+     */
+    public void changed(UUID userId, SyncEntityType collection) {
+        events.publishEvent(new CollectionChangedEvent(userId, collection));
+    }
+
+    /**
+     * Opaque tag that changes whenever one of the given collections of the user changes.
+     * Collections that never changed count as version 0; the tag starts with a component derived
+     * from the user id, so two users with untouched collections still get different tags.
+     */
+    @Transactional(readOnly = true)
+    public String versionTag(UUID userId, SyncEntityType... collections) {
+        Map<SyncEntityType, Long> versions = repository.findByUserId(userId).stream()
+                .collect(Collectors.toMap(CollectionVersion::getCollection, CollectionVersion::getVersion));
+
+        StringBuilder tag = new StringBuilder(
+                Long.toUnsignedString(userId.getMostSignificantBits() ^ userId.getLeastSignificantBits(), 36));
+        for (SyncEntityType collection : collections) {
+            tag.append('-').append(Long.toString(versions.getOrDefault(collection, 0L), 36));
+        }
+        return tag.toString();
+    }
+}
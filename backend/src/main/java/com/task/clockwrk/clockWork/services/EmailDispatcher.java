@@ -0,0 +1,182 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.task.clockwrk.clockWork.entity.OutboundEmail;
+import com.task.clockwrk.clockWork.entity.OutboundEmailStatus;
+import com.task.clockwrk.clockWork.repository.OutboundEmailRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivers the outbox. Each round claims a batch of due mails in a short transaction, sends the
+ * batch over a single SMTP connection with no transaction open, then records the outcome of each
+ * mail. Failed mails are retried with exponential backoff until {@code app.mail.max-attempts}.
+ * A claimed mail is leased for {@code app.mail.send-lease}; if the node dies mid-send, the mail
+ * becomes due again once the lease runs out. Sent and abandoned mails are deleted once they are
+ * older than {@code app.mail.retention}, so one-time codes do not outlive their use in the table.
+ */
+@Component
+@Slf4j
+public class EmailDispatcher {
+
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+    private static final List<OutboundEmailStatus> FINISHED = List.of(OutboundEmailStatus.SENT, OutboundEmailStatus.FAILED);
+
+    private final OutboundEmailRepository outboundEmailRepository;
+    private final MailSender mailSender;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final String from;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Duration sendLease;
+    private final Duration retention;
+
+    public EmailDispatcher(
+            OutboundEmailRepository outboundEmailRepository,
+            MailSender mailSender,
+            MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.mail.from:clockwrk@example.com}") String from,
+            @Value("${app.mail.batch-size:20}") int batchSize,
+            @Value("${app.mail.max-attempts:8}") int maxAttempts,
+            @Value("${app.mail.retry-delay:30s}") Duration retryDelay,
+            @Value("${app.mail.send-lease:5m}") Duration sendLease,
+            @Value("${app.mail.retention:1h}") Duration retention
+    ) {
+        this.outboundEmailRepository = outboundEmailRepository;
+        this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.from = from;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+        this.sendLease = sendLease;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.dispatch-interval:2000}")
+    public void dispatch() {
+        List<OutboundEmail> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                recordOutcome(batch, send(batch));
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.purge-interval:10m}")
+    public void purge() {
+        Instant before = Instant.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(
+                status -> outboundEmailRepository.deleteByStatusCreatedBefore(FINISHED, before));
+        if (deleted != null && deleted > 0) {
+            meterRegistry.counter("clockwrk.mail.purged").increment(deleted);
+            log.debug("Purged {} finished emails created before {}", deleted, before);
+        }
+    }
+
+    private List<OutboundEmail> claimBatch() {
+        Instant now = Instant.now();
+        return transactionTemplate.execute(status -> {
+            List<OutboundEmail> due = outboundEmailRepository.lockDue(now, batchSize);
+            for (OutboundEmail mail : due) {
+                mail.setStatus(OutboundEmailStatus.SENDING);
+                mail.setAttempts(mail.getAttempts() + 1);
+                mail.setNextAttemptAt(now.plus(sendLease));
+            }
+            return due;
+        });
+    }
+
+    // Returns the error of every mail that was not accepted by the server
+    private Map<UUID, String> send(List<OutboundEmail> batch) {
+        SimpleMailMessage[] messages = batch.stream().map(this::toMessage).toArray(SimpleMailMessage[]::new);
+        Map<UUID, String> failures = new HashMap<>();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            for (int i = 0; i < messages.length; i++) {
+                Exception cause = failed.get(messages[i]);
+                // No per-message detail means the whole batch failed, e.g. on connect
+                if (cause != null || failed.isEmpty()) {
+                    failures.put(batch.get(i).getId(), describe(cause != null ? cause : e));
+                }
+            }
+        } catch (MailException e) {
+            batch.forEach(mail -> failures.put(mail.getId(), describe(e)));
+        }
+        sample.stop(meterRegistry.timer("clockwrk.mail.send.batch"));
+        return failures;
+    }
+
+    private void recordOutcome(List<OutboundEmail> batch, Map<UUID, String> failures) {
+        Instant now = Instant.now();
+        for (OutboundEmail mail : batch) {
+            String error = failures.get(mail.getId());
+            if (error == null) {
+                mail.setStatus(OutboundEmailStatus.SENT);
+                mail.setSentAt(now);
+                mail.setLastError(null);
+                meterRegistry.counter("clockwrk.mail.dispatched", "outcome", "sent").increment();
+            } else if (mail.getAttempts() >= maxAttempts) {
+                mail.setStatus(OutboundEmailStatus.FAILED);
+                mail.setLastError(error);
+                meterRegistry.counter("clockwrk.mail.dispatched", "outcome", "failed").increment();
+                log.error("Giving up on email {} to {} after {} attempts: {}",
+                        mail.getId(), mail.getRecipient(), mail.getAttempts(), error);
+            } else {
+                mail.setStatus(OutboundEmailStatus.PENDING);
+                mail.setNextAttemptAt(now.plus(backoff(mail.getAttempts())));
+                mail.setLastError(error);
+                meterRegistry.counter("clockwrk.mail.dispatched", "outcome", "retry").increment();
+                log.warn("Email {} to {} failed (attempt {}), will retry: {}",
+                        mail.getId(), mail.getRecipient(), mail.getAttempts(), error);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> outboundEmailRepository.saveAll(batch));
+        log.debug("Dispatched {} emails, {} failed", batch.size(), failures.size());
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(attempts - 1, 16));
+        return delay.compareTo(MAX_RETRY_DELAY) > 0 ? MAX_RETRY_DELAY : delay;
+    }
+
+    private SimpleMailMessage toMessage(OutboundEmail mail) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(mail.getRecipient());
+        message.setSubject(mail.getSubject());
+        message.setText(mail.getBody());
+        return message;
+    }
+
+    private static String describe(Exception e) {
+        String message = e.getClass().getSimpleName() + ": " + e.getMessage();
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -1,22 +1,30 @@
 package com.task.clockwrk.clockWork.services;
 
+import com.task.clockwrk.clockWork.entity.OutboundEmail;
+import com.task.clockwrk.clockWork.repository.OutboundEmailRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final OutboundEmailRepository outboundEmailRepository;
+    private final MeterRegistry meterRegistry;
 
-    public void sendEmail(String to, String subject, String body) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom("clockwrk@example.com"); // Replace with configured email
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(body);
-        mailSender.send(message);
+    /**
+     * Adds a mail to the outbox in the caller's transaction, so it is sent only if the caller
+     * commits. Delivery happens in the background through {@link EmailDispatcher}.
+     */
+    @Transactional
+    public void queueEmail(String to, String subject, String body) {
+        outboundEmailRepository.save(OutboundEmail.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(body)
+                .build());
+        meterRegistry.counter("clockwrk.mail.queued").increment();
     }
 }
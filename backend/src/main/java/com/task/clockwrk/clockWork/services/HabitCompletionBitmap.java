@@ -0,0 +1,198 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Completion history of one habit for one calendar year, one bit per day. Bit {@code n} stands for
+ * day-of-year {@code n + 1}. All queries work a 64-day word at a time.
+ *
+ * <p>The serialized form is {@value #BYTES} little-endian bytes, the same bit order PostgreSQL's
+ * {@code get_bit}/{@code set_bit} use on {@code bytea}, so single days can be flipped in SQL.
+ */
+public final class HabitCompletionBitmap {
+
+    public static final int BYTES = 46; // 366 days rounded up to whole bytes
+    private static final int WORDS = 6;
+    private static final int DAYS = 366;
+
+    private final int year;
+    private final long[] words;
+
+    private HabitCompletionBitmap(int year, long[] words) {
+        this.year = year;
+        this.words = words;
+    }
+
+    public static HabitCompletionBitmap empty(int year) {
+        return new HabitCompletionBitmap(year, new long[WORDS]);
+    }
+
+    public static HabitCompletionBitmap fromBytes(int year, byte[] bytes) {
+        long[] words = new long[WORDS];
+        for (int i = 0; i < Math.min(bytes.length, BYTES); i++) {
+            words[i >>> 3] |= (bytes[i] & 0xFFL) << ((i & 7) << 3);
+        }
+        return new HabitCompletionBitmap(year, words);
+    }
+
+    public byte[] toBytes() {
+        byte[] bytes = new byte[BYTES];
+        for (int i = 0; i < BYTES; i++) {
+            bytes[i] = (byte) (words[i >>> 3] >>> ((i & 7) << 3));
+        }
+        return bytes;
+    }
+
+    public int year() {
+        return year;
+    }
+
+    public boolean isCompleted(LocalDate date) {
+        int day = dayIndex(date);
+        return (words[day >>> 6] & (1L << day)) != 0;
+    }
+
+    public void setCompleted(LocalDate date, boolean completed) {
+        int day = dayIndex(date);
+        if (completed) {
+            words[day >>> 6] |= 1L << day;
+        } else {
+            words[day >>> 6] &= ~(1L << day);
+        }
+    }
+
+    /**
+     * Number of completed days in [from, to], both inclusive and clamped to this year.
+     */
+    public int countCompleted(LocalDate from, LocalDate to) {
+        int start = Math.max(clampedIndex(from), 0);
+        int end = Math.min(clampedIndex(to), DAYS - 1);
+        if (start > end) {
+            return 0;
+        }
+
+        int firstWord = start >>> 6;
+        int lastWord = end >>> 6;
+        long firstMask = -1L << start;
+        long lastMask = -1L >>> (63 - (end & 63));
+
+        if (firstWord == lastWord) {
+            return Long.bitCount(words[firstWord] & firstMask & lastMask);
+        }
+        int count = Long.bitCount(words[firstWord] & firstMask);
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            count += Long.bitCount(words[w]);
+        }
+        return count + Long.bitCount(words[lastWord] & lastMask);
+    }
+
+    /**
+     * Length of the run of completed days that ends on {@code date}, not looking before January 1.
+     */
+    public int runEndingAt(LocalDate date) {
+        int day = dayIndex(date);
+        int w = day >>> 6;
+
+        // Left-align the bits up to and including the day, then count the leading ones
+        long word = words[w] << (63 - (day & 63));
+        int run = Long.numberOfLeadingZeros(~word);
+        if (run <= (day & 63)) {
+            return run;
+        }
+        while (--w >= 0) {
+            int ones = Long.numberOfLeadingZeros(~words[w]);
+            run += ones;
+            if (ones < 64) {
+                break;
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Longest run of completed days between January 1 and {@code upTo}, inclusive.
+     */
+    public int longestRun(LocalDate upTo) {
+        int end = Math.min(clampedIndex(upTo), DAYS - 1);
+        int longest = 0;
+        int pos = nextSet(0, end);
+        while (pos >= 0) {
+            int runEnd = nextClear(pos, end);
+            longest = Math.max(longest, runEnd - pos);
+            pos = nextSet(runEnd, end);
+        }
+        return longest;
+    }
+
+    /**
+     * Calls {@code consumer} with every completed day in [from, to], in date order.
+     */
+    public void forEachCompleted(LocalDate from, LocalDate to, Consumer<LocalDate> consumer) {
+        int start = Math.max(clampedIndex(from), 0);
+        int end = Math.min(clampedIndex(to), DAYS - 1);
+        LocalDate jan1 = LocalDate.of(year, 1, 1);
+        for (int day = nextSet(start, end); day >= 0; day = nextSet(day + 1, end)) {
+            consumer.accept(jan1.plusDays(day));
+        }
+    }
+
+    // Index of the first set bit in [from, end], or -1
+    private int nextSet(int from, int end) {
+        if (from > end) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        while (word == 0) {
+            if (++w > (end >>> 6)) {
+                return -1;
+            }
+            word = words[w];
+        }
+        int index = (w << 6) + Long.numberOfTrailingZeros(word);
+        return index <= end ? index : -1;
+    }
+
+    // Index of the first clear bit in [from, end], or end + 1 if the run reaches the end
+    private int nextClear(int from, int end) {
+        int w = from >>> 6;
+        long word = ~words[w] & (-1L << from);
+        while (word == 0) {
+            if (++w > (end >>> 6)) {
+                return end + 1;
+            }
+            word = ~words[w];
+        }
+        return Math.min((w << 6) + Long.numberOfTrailingZeros(word), end + 1);
+    }
+
+    private int dayIndex(LocalDate date) {
+        if (date.getYear() != year) {
+            throw new IllegalArgumentException(date + " is not in " + year);
+        }
+        return date.getDayOfYear() - 1;
+    }
+
+    // Like dayIndex, but maps dates outside the year to just before or after it
+    private int clampedIndex(LocalDate date) {
+        if (date.getYear() < year) {
+            return -1;
+        }
+        if (date.getYear() > year) {
+            return DAYS;
+        }
+        return date.getDayOfYear() - 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof HabitCompletionBitmap other && year == other.year && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * year + Arrays.hashCode(words);
+    }
+}
@@ -0,0 +1,88 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.task.clockwrk.clockWork.entity.Habit;
+import com.task.clockwrk.clockWork.entity.HabitCompletionYear;
+import com.task.clockwrk.clockWork.entity.HabitEntry;
+import com.task.clockwrk.clockWork.repository.HabitCompletionYearRepository;
+import com.task.clockwrk.clockWork.repository.HabitRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Serves habit completion history from per-year bitmaps instead of one row per day. Exposes the
+ * same lookups as {@link com.task.clockwrk.clockWork.repository.HabitEntryRepository}, but only
+ * returns completed days and their entries carry no id or notes. A year without a bitmap has no
+ * completed days: the history was converted by a migration and toggles create the bitmap of a
+ * new year, so reads never write.
+ */
+@Service
+@RequiredArgsConstructor
+public class HabitCompletionStore {
+
+    private final HabitCompletionYearRepository yearRepository;
+    private final HabitRepository habitRepository;
+
+    @Transactional(readOnly = true)
+    public List<HabitEntry> findByHabitIdAndDateBetween(UUID habitId, LocalDate startDate, LocalDate endDate) {
+        Habit habit = habitRepository.getReferenceById(habitId);
+        List<HabitEntry> entries = new ArrayList<>();
+        for (HabitCompletionYear row : yearRepository.findByHabitIdAndYearBetween(habitId, startDate.getYear(), endDate.getYear())) {
+            HabitCompletionBitmap.fromBytes(row.getYear(), row.getBits())
+                    .forEachCompleted(startDate, endDate, date -> entries.add(completedEntry(habit, date)));
+        }
+        return entries;
+    }
+
+    @Transactional(readOnly = true)
+    public List<HabitEntry> findByHabitUserIdAndDateBetween(UUID userId, LocalDate startDate, LocalDate endDate) {
+        Map<UUID, List<HabitCompletionBitmap>> bitmaps = new HashMap<>();
+        for (HabitCompletionYear row : yearRepository.findByUserIdAndYearBetween(userId, startDate.getYear(), endDate.getYear())) {
+            bitmaps.computeIfAbsent(row.getHabitId(), k -> new ArrayList<>())
+                    .add(HabitCompletionBitmap.fromBytes(row.getYear(), row.getBits()));
+        }
+
+        List<HabitEntry> entries = new ArrayList<>();
+        for (Habit habit : habitRepository.findByUserId(userId)) {
+            for (HabitCompletionBitmap bitmap : bitmaps.getOrDefault(habit.getId(), List.of())) {
+                bitmap.forEachCompleted(startDate, endDate, date -> entries.add(completedEntry(habit, date)));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the bitmap for one habit and year, empty if the habit has no completions that year.
+     */
+    @Transactional(readOnly = true)
+    public HabitCompletionBitmap load(UUID habitId, int year) {
+        List<HabitCompletionYear> rows = yearRepository.findByHabitIdAndYearBetween(habitId, year, year);
+        return rows.isEmpty()
+                ? HabitCompletionBitmap.empty(year)
+                : HabitCompletionBitmap.fromBytes(year, rows.get(0).getBits());
+    }
+
+    @Transactional
+    public void deleteAll(UUID habitId) {
+        yearRepository.deleteByHabitId(habitId);
+    }
+
+    private HabitEntry completedEntry(Habit habit, LocalDate date) {
+        return HabitEntry.builder()
+                .habit(habit)
+                .date(date)
+                .completed(true)
+                .count(1)
+                .createdAt(null)
+                .build();
+    }
+}
@@ -3,30 +3,33 @@ package com.task.clockwrk.clockWork.services;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.task.clockwrk.clockWork.dtos.HabitRequest;
 import com.task.clockwrk.clockWork.dtos.HabitResponse;
 import com.task.clockwrk.clockWork.dtos.HabitStats;
+import com.task.clockwrk.clockWork.dtos.HabitToggleResponse;
 import com.task.clockwrk.clockWork.entity.Habit;
 import com.task.clockwrk.clockWork.entity.HabitEntry;
-import com.task.clockwrk.clockWork.entity.User;
+import com.task.clockwrk.clockWork.entity.HabitStatsSnapshot;
+import com.task.clockwrk.clockWork.entity.SyncEntityType;
+import com.task.clockwrk.clockWork.entity.UuidV7;
 import com.task.clockwrk.clockWork.exception.ApiException;
 import com.task.clockwrk.clockWork.repository.HabitEntryRepository;
 import com.task.clockwrk.clockWork.repository.HabitRepository;
-import com.task.clockwrk.clockWork.repository.UserRepository;
+import com.task.clockwrk.clockWork.repository.HabitStatsSnapshotRepository;
+import com.task.clockwrk.clockWork.security.CurrentUser;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -37,20 +40,43 @@ public class HabitService {
 
     private final HabitRepository habitRepository;
     private final HabitEntryRepository habitEntryRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
+    private final HabitStatsSnapshotRepository habitStatsRepository;
+    private final HabitCompletionStore completionStore;
+    private final SyncService syncService;
+    private final CollectionVersionService collectionVersions;
+    private final SnapshotCache snapshotCache;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
 
-    public List<HabitResponse> getAllHabits() {
-        User user = getCurrentUser();
-        List<Habit> habits = habitRepository.findByUserIdAndArchivedFalse(user.getId());
+    /**
+     * The active habits with their stats, served from the snapshot cache while {@code version}
+     * (the habits ETag) is unchanged.
+     */
+    public List<HabitResponse> getAllHabits(String version) {
+        UUID userId = currentUser.getId();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return snapshotCache.get(userId, SyncEntityType.HABIT, version,
+                () -> readOnly.execute(status -> loadHabits(userId)),
+                HabitService::estimatedBytes);
+    }
+
+    private List<HabitResponse> loadHabits(UUID userId) {
+        List<Habit> habits = habitRepository.findByUserIdAndArchivedFalse(userId);
+        
+        Map<UUID, HabitStatsSnapshot> snapshots = habitStatsRepository
+                .findAllById(habits.stream().map(Habit::getId).toList()).stream()
+                .collect(Collectors.toMap(HabitStatsSnapshot::getHabitId, snapshot -> snapshot));
+        
+        LocalDate today = LocalDate.now();
         return habits.stream()
-                .map(this::toHabitResponse)
+                .map(habit -> toHabitResponse(habit, currentSnapshot(habit.getId(), snapshots.get(habit.getId()), today)))
                 .collect(Collectors.toList());
     }
 
     @Transactional
     public HabitResponse createHabit(HabitRequest request) {
-        User user = getCurrentUser();
-        
         Habit habit = Habit.builder()
                 .name(request.getName())
                 .description(request.getDescription())
@@ -59,12 +85,13 @@ public class HabitService {
                 .targetCount(request.getTargetCount() != null ? request.getTargetCount() : 1)
                 .color(request.getColor())
                 .icon(request.getIcon())
-                .user(user)
+                .user(currentUser.getReference())
                 .build();
 
         habit = habitRepository.save(habit);
-        log.info("Created habit '{}' for user {}", habit.getName(), user.getEmail());
-        return toHabitResponse(habit);
+        collectionVersions.bump(currentUser.getId(), SyncEntityType.HABIT);
+        log.info("Created habit '{}' for user {}", habit.getName(), currentUser.getId());
+        return toHabitResponse(habit, refreshStats(habit.getId(), LocalDate.now()));
     }
 
     @Transactional
@@ -80,6 +107,7 @@ public class HabitService {
         habit.setIcon(request.getIcon());
 
         habit = habitRepository.save(habit);
+        collectionVersions.bump(currentUser.getId(), SyncEntityType.HABIT);
         log.info("Updated habit '{}'", habit.getName());
         return toHabitResponse(habit);
     }
@@ -87,7 +115,12 @@ public class HabitService {
     @Transactional
     public void deleteHabit(UUID id) {
         Habit habit = getHabitWithOwnershipCheck(id);
+        habitStatsRepository.deleteById(habit.getId());
+        completionStore.deleteAll(habit.getId());
         habitRepository.delete(habit);
+        syncService.recordDeletion(currentUser.getId(), SyncEntityType.HABIT, habit.getId());
+        collectionVersions.bump(currentUser.getId(), SyncEntityType.HABIT);
+        collectionVersions.bump(currentUser.getId(), SyncEntityType.HABIT_ENTRY);
         log.info("Deleted habit '{}'", habit.getName());
     }
 
@@ -96,48 +129,50 @@ public class HabitService {
         Habit habit = getHabitWithOwnershipCheck(id);
         habit.setArchived(true);
         habitRepository.save(habit);
+        collectionVersions.bump(currentUser.getId(), SyncEntityType.HABIT);
         log.info("Archived habit '{}'", habit.getName());
     }
 
+    // Concurrent toggles of the same day serialize on the entry row; the stats written after it
+    // read the bitmap the toggle just changed, so reads never have to store stats themselves
     @Transactional
-    public void toggleHabitEntry(UUID habitId, LocalDate date) {
-        Habit habit = getHabitWithOwnershipCheck(habitId);
+    public HabitToggleResponse toggleHabitEntry(UUID habitId, LocalDate date) {
+        boolean completed = habitEntryRepository
+                .toggle(UuidV7.generate(), habitId, currentUser.getId(), date, date.getYear(), date.getDayOfYear() - 1)
+                .orElseThrow(() -> ApiException.notFound("Habit not found"));
+        refreshStats(habitId, LocalDate.now());
+        collectionVersions.changed(currentUser.getId(), SyncEntityType.HABIT_ENTRY);
+        log.debug("Toggled habit {} on {}: {}", habitId, date, completed);
 
-        Optional<HabitEntry> existingEntry = habitEntryRepository.findByHabitIdAndDate(habitId, date);
+        return HabitToggleResponse.builder()
+                .habitId(habitId)
+                .date(date)
+                .completed(completed)
+                .build();
+    }
 
-        if (existingEntry.isPresent()) {
-            HabitEntry entry = existingEntry.get();
-            entry.setCompleted(!entry.isCompleted());
-            entry.setCompletedAt(entry.isCompleted() ? Instant.now() : null);
-            habitEntryRepository.save(entry);
-            log.debug("Toggled habit entry for '{}' on {}: {}", habit.getName(), date, entry.isCompleted());
-        } else {
-            HabitEntry newEntry = HabitEntry.builder()
-                    .habit(habit)
-                    .date(date)
-                    .completed(true)
-                    .completedAt(Instant.now())
-                    .count(1)
-                    .build();
-            habitEntryRepository.save(newEntry);
-            log.debug("Created new habit entry for '{}' on {}", habit.getName(), date);
-        }
+    /**
+     * Recomputes and stores the statistics snapshot of each habit as of the given day.
+     */
+    @Transactional
+    public void refreshStats(List<UUID> habitIds, LocalDate today) {
+        habitIds.forEach(habitId -> refreshStats(habitId, today));
     }
 
+    @Transactional
     public Map<LocalDate, HabitEntry> getHabitEntries(UUID habitId, LocalDate startDate, LocalDate endDate) {
         validateDateRange(startDate, endDate);
-        Habit habit = getHabitWithOwnershipCheck(habitId);
+        getHabitWithOwnershipCheck(habitId);
 
-        List<HabitEntry> entries = habitEntryRepository.findByHabitIdAndDateBetween(habitId, startDate, endDate);
+        List<HabitEntry> entries = completionStore.findByHabitIdAndDateBetween(habitId, startDate, endDate);
         return entries.stream()
                 .collect(Collectors.toMap(HabitEntry::getDate, entry -> entry));
     }
 
+    @Transactional
     public Map<UUID, Map<LocalDate, HabitEntry>> getAllHabitEntriesForPeriod(LocalDate startDate, LocalDate endDate) {
         validateDateRange(startDate, endDate);
-        User user = getCurrentUser();
-        
-        List<HabitEntry> entries = habitEntryRepository.findByHabitUserIdAndDateBetween(user.getId(), startDate, endDate);
+        List<HabitEntry> entries = completionStore.findByHabitUserIdAndDateBetween(currentUser.getId(), startDate, endDate);
         
         Map<UUID, Map<LocalDate, HabitEntry>> result = new HashMap<>();
         for (HabitEntry entry : entries) {
@@ -160,21 +195,18 @@ public class HabitService {
         }
     }
 
+    // Habits of other users are reported as missing, so ids cannot be probed
     private Habit getHabitWithOwnershipCheck(UUID id) {
-        Habit habit = habitRepository.findById(id)
+        return habitRepository.findByIdAndUserId(id, currentUser.getId())
                 .orElseThrow(() -> ApiException.notFound("Habit not found"));
-
-        User currentUser = getCurrentUser();
-        if (!habit.getUser().getId().equals(currentUser.getId())) {
-            throw ApiException.forbidden("You don't have permission to access this habit");
-        }
-        
-        return habit;
     }
 
     private HabitResponse toHabitResponse(Habit habit) {
-        HabitStats stats = calculateStats(habit);
-        
+        HabitStatsSnapshot snapshot = habitStatsRepository.findById(habit.getId()).orElse(null);
+        return toHabitResponse(habit, currentSnapshot(habit.getId(), snapshot, LocalDate.now()));
+    }
+
+    private HabitResponse toHabitResponse(Habit habit, HabitStatsSnapshot snapshot) {
         return HabitResponse.builder()
                 .id(habit.getId())
                 .name(habit.getName())
@@ -186,108 +218,56 @@ public class HabitService {
                 .icon(habit.getIcon())
                 .archived(habit.isArchived())
                 .createdAt(habit.getCreatedAt())
-                .stats(stats)
+                .stats(toStats(habit, snapshot))
                 .build();
     }
 
-    private HabitStats calculateStats(Habit habit) {
-        LocalDate today = LocalDate.now();
-        LocalDate startOfYear = today.withDayOfYear(1);
-        
-        List<HabitEntry> allEntries = habitEntryRepository.findByHabitIdAndDateBetween(
-                habit.getId(), startOfYear, today);
-        
-        List<HabitEntry> completedEntries = allEntries.stream()
-                .filter(HabitEntry::isCompleted)
-                .sorted(Comparator.comparing(HabitEntry::getDate))
-                .collect(Collectors.toList());
+    /*
+     * A snapshot computed on an earlier day has stale streak and week/month counters. Those are
+     * recomputed for the response only: the rollover job and the next toggle store them.
+     */
+    private HabitStatsSnapshot currentSnapshot(UUID habitId, HabitStatsSnapshot snapshot, LocalDate today) {
+        if (snapshot != null && today.equals(snapshot.getAsOf())) {
+            return snapshot;
+        }
+        return calculateStats(habitId, today);
+    }
 
-        int currentStreak = calculateCurrentStreak(completedEntries, today);
-        int longestStreak = calculateLongestStreak(completedEntries);
-        int totalCompletions = completedEntries.size();
-        
+    private HabitStatsSnapshot refreshStats(UUID habitId, LocalDate today) {
+        return habitStatsRepository.save(calculateStats(habitId, today));
+    }
+
+    private HabitStatsSnapshot calculateStats(UUID habitId, LocalDate today) {
+        return meterRegistry.timer("clockwrk.habits.stats.refresh").record(() -> {
+            HabitCompletionBitmap currentYear = completionStore.load(habitId, today.getYear());
+            return HabitStatsCalculator.calculateStats(habitId, currentYear, today);
+        });
+    }
+
+    private HabitStats toStats(Habit habit, HabitStatsSnapshot snapshot) {
         long daysSinceCreation = ChronoUnit.DAYS.between(
                 habit.getCreatedAt().truncatedTo(ChronoUnit.DAYS), 
                 Instant.now().truncatedTo(ChronoUnit.DAYS)) + 1;
-        double completionRate = daysSinceCreation > 0 ? (totalCompletions * 100.0 / daysSinceCreation) : 0;
-        
-        LocalDate startOfWeek = today.minusDays(today.getDayOfWeek().getValue() - 1);
-        int completionsThisWeek = (int) completedEntries.stream()
-                .filter(e -> !e.getDate().isBefore(startOfWeek))
-                .count();
-        
-        LocalDate startOfMonth = today.withDayOfMonth(1);
-        int completionsThisMonth = (int) completedEntries.stream()
-                .filter(e -> !e.getDate().isBefore(startOfMonth))
-                .count();
+        double completionRate = daysSinceCreation > 0 ? (snapshot.getTotalCompletions() * 100.0 / daysSinceCreation) : 0;
 
         return HabitStats.builder()
-                .currentStreak(currentStreak)
-                .longestStreak(longestStreak)
-                .totalCompletions(totalCompletions)
+                .currentStreak(snapshot.getCurrentStreak())
+                .longestStreak(snapshot.getLongestStreak())
+                .totalCompletions(snapshot.getTotalCompletions())
                 .completionRate(Math.round(completionRate * 100.0) / 100.0)
-                .completionsThisWeek(completionsThisWeek)
-                .completionsThisMonth(completionsThisMonth)
+                .completionsThisWeek(snapshot.getCompletionsThisWeek())
+                .completionsThisMonth(snapshot.getCompletionsThisMonth())
                 .build();
     }
 
-    private int calculateCurrentStreak(List<HabitEntry> completedEntries, LocalDate today) {
-        if (completedEntries.isEmpty()) return 0;
-        
-        boolean foundRecent = completedEntries.stream()
-                .anyMatch(e -> e.getDate().equals(today) || e.getDate().equals(today.minusDays(1)));
-        
-        if (!foundRecent) return 0;
-        
-        int streak = 0;
-        LocalDate checkDate = today;
-        
-        for (int i = 0; i < 365; i++) {
-            LocalDate finalCheckDate = checkDate;
-            boolean completed = completedEntries.stream()
-                    .anyMatch(e -> e.getDate().equals(finalCheckDate));
-            
-            if (completed) {
-                streak++;
-                checkDate = checkDate.minusDays(1);
-            } else {
-                break;
-            }
-        }
-        
-        return streak;
-    }
-
-    private int calculateLongestStreak(List<HabitEntry> completedEntries) {
-        if (completedEntries.isEmpty()) return 0;
-        
-        int longestStreak = 1;
-        int currentStreak = 1;
-        
-        for (int i = 1; i < completedEntries.size(); i++) {
-            LocalDate prevDate = completedEntries.get(i - 1).getDate();
-            LocalDate currDate = completedEntries.get(i).getDate();
-            
-            if (ChronoUnit.DAYS.between(prevDate, currDate) == 1) {
-                currentStreak++;
-            } else {
-                longestStreak = Math.max(longestStreak, currentStreak);
-                currentStreak = 1;
-            }
-        }
-        
-        return Math.max(longestStreak, currentStreak);
-    }
-
-    private User getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        
-        if (!(principal instanceof UserDetails)) {
-            throw ApiException.unauthorized("Not authenticated");
-        }
-        
-        String email = ((UserDetails) principal).getUsername();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> ApiException.notFound("User not found"));
+    // Object, UUID, Instant and stats headers plus the text fields
+    private static int estimatedBytes(HabitResponse habit) {
+        return 240
+                + SnapshotCache.stringBytes(habit.getName())
+                + SnapshotCache.stringBytes(habit.getDescription())
+                + SnapshotCache.stringBytes(habit.getCategory())
+                + SnapshotCache.stringBytes(habit.getFrequency())
+                + SnapshotCache.stringBytes(habit.getColor())
+                + SnapshotCache.stringBytes(habit.getIcon());
     }
 }
@@ -0,0 +1,45 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import com.task.clockwrk.clockWork.entity.HabitStatsSnapshot;
+
+/**
+ * Year-to-date habit statistics computed from a completion bitmap. Streaks and counts only look
+ * at the current calendar year, up to and including today.
+ */
+public final class HabitStatsCalculator {
+
+    private HabitStatsCalculator() {
+    }
+
+    public static HabitStatsSnapshot calculateStats(UUID habitId, HabitCompletionBitmap currentYear, LocalDate today) {
+        LocalDate startOfYear = today.withDayOfYear(1);
+        LocalDate startOfWeek = today.minusDays(today.getDayOfWeek().getValue() - 1);
+        LocalDate startOfMonth = today.withDayOfMonth(1);
+
+        return HabitStatsSnapshot.builder()
+                .habitId(habitId)
+                .currentStreak(calculateCurrentStreak(currentYear, today))
+                .longestStreak(calculateLongestStreak(currentYear, today))
+                .totalCompletions(currentYear.countCompleted(startOfYear, today))
+                .completionsThisWeek(currentYear.countCompleted(startOfWeek, today))
+                .completionsThisMonth(currentYear.countCompleted(startOfMonth, today))
+                .asOf(today)
+                .updatedAt(Instant.now())
+                .build();
+    }
+
+    /**
+     * Consecutive completed days ending today; zero when today is not completed.
+     */
+    public static int calculateCurrentStreak(HabitCompletionBitmap currentYear, LocalDate today) {
+        return currentYear.runEndingAt(today);
+    }
+
+    public static int calculateLongestStreak(HabitCompletionBitmap currentYear, LocalDate today) {
+        return currentYear.longestRun(today);
+    }
+}
@@ -0,0 +1,41 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.task.clockwrk.clockWork.entity.HabitStatsSnapshot;
+import com.task.clockwrk.clockWork.repository.HabitStatsSnapshotRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves habit statistics snapshots to the new day shortly after midnight, so that streaks and
+ * week/month counters are already current when users open the app. Snapshots the job has not
+ * reached yet are refreshed on read.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HabitStatsRolloverJob {
+
+    private final HabitStatsSnapshotRepository habitStatsRepository;
+    private final HabitService habitService;
+
+    @Scheduled(cron = "${app.habits.stats-rollover-cron:0 5 0 * * *}")
+    public void rollOver() {
+        LocalDate today = LocalDate.now();
+        int refreshed = 0;
+
+        List<HabitStatsSnapshot> stale;
+        while (!(stale = habitStatsRepository.findTop500ByAsOfBefore(today)).isEmpty()) {
+            habitService.refreshStats(stale.stream().map(HabitStatsSnapshot::getHabitId).toList(), today);
+            refreshed += stale.size();
+        }
+
+        log.info("Rolled habit statistics over to {} for {} habits", today, refreshed);
+    }
+}
@@ -0,0 +1,215 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.task.clockwrk.clockWork.exception.ApiException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Square thumbnails of stored images at the sizes in {@code file.upload.variants.sizes}, cut
+ * from the centre for avatars. A variant is rendered on a small worker pool the first time it is
+ * asked for and kept on disk next to the store; concurrent requests for the same variant share
+ * one render. Images that are already small enough, or that ImageIO cannot rewrite (SVG, WebP),
+ * are served as they are, and so are images whose render failed within the last
+ * {@code file.upload.variants.failure-ttl}.
+ */
+@Service
+@Slf4j
+public class ImageVariants {
+
+    // Extension -> ImageIO writer
+    private static final Map<String, String> FORMATS = Map.of("png", "png", "jpg", "jpeg", "gif", "gif");
+
+    private final UploadStore uploadStore;
+    private final List<Integer> sizes;
+    private final long maxPixels;
+    private final Duration renderTimeout;
+    private final ThreadPoolExecutor workers;
+    private final Timer renderTimer;
+    // Renders in flight; each removes itself when it completes
+    private final Map<Path, CompletableFuture<Path>> rendering = new ConcurrentHashMap<>();
+    private final Cache<Path, Boolean> failed;
+
+    public ImageVariants(
+            UploadStore uploadStore,
+            MeterRegistry meterRegistry,
+            @Value("${file.upload.variants.sizes:32,64,128,256}") List<Integer> sizes,
+            @Value("${file.upload.variants.max-pixels:40000000}") long maxPixels,
+            @Value("${file.upload.variants.threads:2}") int threads,
+            @Value("${file.upload.variants.queue-capacity:64}") int queueCapacity,
+            @Value("${file.upload.variants.render-timeout:10s}") Duration renderTimeout,
+            @Value("${file.upload.variants.failure-ttl:5m}") Duration failureTtl
+    ) {
+        this.uploadStore = uploadStore;
+        this.sizes = List.copyOf(sizes);
+        this.maxPixels = maxPixels;
+        this.renderTimeout = renderTimeout;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("image-variant-"));
+        this.failed = Caffeine.newBuilder()
+                .expireAfterWrite(failureTtl)
+                .maximumSize(10_000)
+                .build();
+        this.renderTimer = meterRegistry.timer("clockwrk.uploads.variants.render");
+        meterRegistry.gauge("clockwrk.uploads.variants.queued", workers, pool -> pool.getQueue().size());
+    }
+
+    /**
+     * The file to serve for the {@code size} pixel variant of a stored image, rendering it if
+     * needed, or null when there is no such image or size.
+     */
+    public Path variant(String fileName, int size) throws IOException {
+        Path original = uploadStore.resolve(fileName);
+        if (!sizes.contains(size) || original == null || !Files.isRegularFile(original)) {
+            return null;
+        }
+        String format = FORMATS.get(StringUtils.getFilenameExtension(fileName));
+        if (format == null) {
+            return original;
+        }
+        Path target = uploadStore.variant(fileName, size);
+        if (Files.exists(target)) {
+            return target;
+        }
+        if (failed.getIfPresent(target) != null) {
+            return original;
+        }
+
+        CompletableFuture<Path> render;
+        try {
+            render = rendering.computeIfAbsent(target, key -> CompletableFuture.supplyAsync(
+                    () -> renderTimer.record(() -> render(original, target, size, format)), workers));
+        } catch (RejectedExecutionException e) {
+            throw new ApiException("Image processing is busy, try again shortly", HttpStatus.SERVICE_UNAVAILABLE, "VARIANTS_BUSY");
+        }
+        // Attached outside computeIfAbsent: a render that is already done runs this right away
+        render.whenComplete((path, error) -> {
+            if (error != null) {
+                failed.put(target, Boolean.TRUE);
+            }
+            rendering.remove(target, render);
+        });
+        try {
+            return render.get(renderTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ApiException("Image processing is busy, try again shortly", HttpStatus.SERVICE_UNAVAILABLE, "VARIANTS_BUSY");
+        } catch (ExecutionException e) {
+            // Not decodable after all: the original is still a valid answer
+            log.warn("Could not render {} at {}px: {}", fileName, size, e.getCause().getMessage());
+            return original;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private Path render(Path original, Path target, int size, String format) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("unsupported image");
+            }
+            ImageReader reader = readers.next();
+            BufferedImage source;
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // Checked from the header, before anything is decoded
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("image is " + width + "x" + height);
+                }
+                int side = Math.min(width, height);
+                if (side <= size) {
+                    return original;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(new Rectangle((width - side) / 2, (height - side) / 2, side, side));
+                // Decode at no less than twice the target size instead of the full resolution
+                int subsampling = Math.max(1, side / (size * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                source = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+
+            BufferedImage scaled = scale(source, size, !"jpeg".equals(format));
+            Files.createDirectories(target.getParent());
+            Path part = Files.createTempFile(target.getParent(), "variant-", ".part");
+            try {
+                if (!ImageIO.write(scaled, format, part.toFile())) {
+                    throw new IOException("no writer for " + format);
+                }
+                Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(part);
+            }
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Halves the image with bilinear filtering until the last step is at most 2:1, which keeps it sharp. */
+    private static BufferedImage scale(BufferedImage image, int size, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = image;
+        int side = Math.min(image.getWidth(), image.getHeight());
+        do {
+            side = Math.max(size, side / 2);
+            BufferedImage next = new BufferedImage(side, side, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, side, side, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (side > size);
+        return current;
+    }
+}
@@ -0,0 +1,111 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+/**
+ * Stored files as objects in an S3-compatible bucket ({@code file.storage.s3.*}), shared by
+ * every instance. Objects carry their content type and an immutable Cache-Control, so reads
+ * through presigned URLs cache like reads through the API.
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.type", havingValue = "s3")
+public class S3BlobStorage implements BlobStorage {
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private final S3Client s3;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final String prefix;
+
+    public S3BlobStorage(
+            S3Client s3,
+            S3Presigner presigner,
+            @Value("${file.storage.s3.bucket}") String bucket,
+            @Value("${file.storage.s3.prefix:uploads/}") String prefix
+    ) {
+        this.s3 = s3;
+        this.presigner = presigner;
+        this.bucket = bucket;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        try {
+            // Streamed from the file with its length known up front
+            s3.putObject(request -> request.bucket(bucket).key(prefix + key)
+                    .contentType(contentType)
+                    .cacheControl(IMMUTABLE), RequestBody.fromFile(source));
+        } catch (SdkException e) {
+            throw new IOException("Could not store " + key, e);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        try {
+            s3.headObject(request -> request.bucket(bucket).key(prefix + key));
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw new IOException("Could not look up " + key, e);
+        } catch (SdkException e) {
+            throw new IOException("Could not look up " + key, e);
+        }
+    }
+
+    @Override
+    public boolean download(String key, Path target) throws IOException {
+        try {
+            s3.getObject(request -> request.bucket(bucket).key(prefix + key), ResponseTransformer.toFile(target));
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (SdkException e) {
+            throw new IOException("Could not fetch " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3.deleteObject(request -> request.bucket(bucket).key(prefix + key));
+        } catch (SdkException e) {
+            throw new IOException("Could not delete " + key, e);
+        }
+    }
+
+    @Override
+    public Optional<URI> presignedUrl(String key, Duration ttl) {
+        try {
+            return Optional.of(presigner.presignGetObject(presign -> presign
+                    .signatureDuration(ttl)
+                    .getObjectRequest(request -> request.bucket(bucket).key(prefix + key)))
+                    .url().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import com.task.clockwrk.clockWork.entity.SyncEntityType;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * In-memory copies of each user's task and habit lists, bounded by an estimated size in bytes
+ * ({@code app.cache.snapshots.max-size}) and evicted by Caffeine's W-TinyLFU policy.
+ * <p>
+ * A snapshot is stored with the collection version tag the request read before loading it and
+ * is only served for that same tag, so it is never older than the ETag it goes out with. Every
+ * committed mutation in {@link TaskService} and {@link HabitService} bumps a version, and the
+ * resulting {@link CollectionChangedEvent} drops the user's snapshot right away.
+ * <p>
+ * Loads run outside Caffeine's entry locks. Concurrent misses for the same version wait for the
+ * one load in flight; a load for another version replaces it.
+ */
+@Component
+public class SnapshotCache {
+
+    private static final int SNAPSHOT_OVERHEAD_BYTES = 128;
+
+    private final Cache<Key, Snapshot> snapshots;
+    // Recorded by hand: a snapshot for another version is a miss, not a hit
+    private final StatsCounter stats = new ConcurrentStatsCounter();
+
+    public SnapshotCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.snapshots.max-size:64MB}") DataSize maxSize
+    ) {
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, Snapshot snapshot) -> snapshot.bytes())
+                .recordStats(() -> stats)
+                .build();
+
+        // cache.gets{result=hit|miss}, cache.evictions, cache.eviction.weight, cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "snapshots");
+        Gauge.builder("clockwrk.cache.snapshots.bytes", snapshots, SnapshotCache::weightedSize)
+                .description("Estimated size of the cached snapshots")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The user's snapshot of the collection at {@code version}, loading it on a miss.
+     * {@code itemBytes} estimates the retained size of one element.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(UUID userId, SyncEntityType collection, String version,
+            Supplier<List<T>> loader, ToIntFunction<T> itemBytes) {
+        Key key = new Key(userId, collection);
+        Snapshot cached = snapshots.policy().getIfPresentQuietly(key);
+        if (cached != null && cached.version().equals(version)) {
+            stats.recordHits(1);
+            return (List<T>) await(cached, loader);
+        }
+        stats.recordMisses(1);
+
+        // Only the pending entry is installed under the lock; the load itself runs outside it
+        Snapshot pending = new Snapshot(version, new CompletableFuture<>(), SNAPSHOT_OVERHEAD_BYTES);
+        Snapshot current = snapshots.asMap().compute(key, (k, existing) ->
+                existing != null && existing.version().equals(version) ? existing : pending);
+        if (current != pending) {
+            return (List<T>) await(current, loader);
+        }
+
+        List<T> items;
+        try {
+            items = List.copyOf(loader.get());
+        } catch (RuntimeException e) {
+            snapshots.asMap().remove(key, pending);
+            pending.items().completeExceptionally(e);
+            throw e;
+        }
+        long bytes = SNAPSHOT_OVERHEAD_BYTES;
+        for (T item : items) {
+            bytes += itemBytes.applyAsInt(item);
+        }
+        pending.items().complete(items);
+        // Weighed again now that the size is known; unless it was invalidated while loading
+        snapshots.asMap().replace(key, pending,
+                new Snapshot(version, pending.items(), (int) Math.min(bytes, Integer.MAX_VALUE)));
+        return items;
+    }
+
+    @TransactionalEventListener
+    public void onCollectionChanged(CollectionChangedEvent event) {
+        switch (event.collection()) {
+            case TASK -> snapshots.invalidate(new Key(event.userId(), SyncEntityType.TASK));
+            // Habit snapshots carry stats derived from the entries
+            case HABIT, HABIT_ENTRY -> snapshots.invalidate(new Key(event.userId(), SyncEntityType.HABIT));
+            default -> {
+            }
+        }
+    }
+
+    // A load that failed for another request is retried by this one rather than shared
+    private static List<?> await(Snapshot snapshot, Supplier<? extends List<?>> loader) {
+        try {
+            return snapshot.items().join();
+        } catch (CompletionException | CancellationException e) {
+            return List.copyOf(loader.get());
+        }
+    }
+
+    /** Upper estimate of the heap held by a string field, including the reference to it. */
+    static int stringBytes(String value) {
+        return value == null ? 0 : 48 + 2 * value.length();
+    }
+
+    private static double weightedSize(Cache<Key, Snapshot> cache) {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L);
+    }
+
+    private record Key(UUID userId, SyncEntityType collection) {
+    }
+
+    private record Snapshot(String version, CompletableFuture<List<?>> items, int bytes) {
+    }
+}
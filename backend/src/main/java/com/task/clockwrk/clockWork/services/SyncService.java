@@ -0,0 +1,95 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.task.clockwrk.clockWork.dtos.SyncResponse;
+import com.task.clockwrk.clockWork.entity.CustomList;
+import com.task.clockwrk.clockWork.entity.Habit;
+import com.task.clockwrk.clockWork.entity.HabitEntry;
+import com.task.clockwrk.clockWork.entity.SyncEntityType;
+import com.task.clockwrk.clockWork.entity.SyncTombstone;
+import com.task.clockwrk.clockWork.entity.Task;
+import com.task.clockwrk.clockWork.exception.ApiException;
+import com.task.clockwrk.clockWork.repository.CustomListRepository;
+import com.task.clockwrk.clockWork.repository.HabitEntryRepository;
+import com.task.clockwrk.clockWork.repository.HabitRepository;
+import com.task.clockwrk.clockWork.repository.SyncTombstoneRepository;
+import com.task.clockwrk.clockWork.repository.TaskRepository;
+import com.task.clockwrk.clockWork.security.CurrentUser;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+
+    private final TaskRepository taskRepository;
+    private final HabitRepository habitRepository;
+    private final HabitEntryRepository habitEntryRepository;
+    private final CustomListRepository listRepository;
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final CurrentUser currentUser;
+
+    /**
+     * Returns every row of the current user that was created, updated or deleted since the given
+     * watermark. A watermark of 0 returns the full data set. A row's version is the transaction
+     * that wrote it, and the returned watermark is the oldest transaction still running when the
+     * sync started, so rows that commit late are picked up by the next sync. Rows around the
+     * watermark may be sent twice; a client applies them as upserts.
+     */
+    @Transactional(readOnly = true)
+    public SyncResponse getChangesSince(long since) {
+        if (since < 0) {
+            throw ApiException.badRequest("since must not be negative");
+        }
+
+        UUID userId = currentUser.getId();
+        // Taken before the rows are read: whatever commits in between is sent again next time
+        long version = tombstoneRepository.changeVersionWatermark();
+
+        List<Task> tasks = taskRepository.findByUserIdAndChangeVersionGreaterThanEqual(userId, since);
+        List<Habit> habits = habitRepository.findByUserIdAndChangeVersionGreaterThanEqual(userId, since);
+        List<HabitEntry> entries = habitEntryRepository.findByHabitUserIdAndChangeVersionGreaterThanEqual(userId, since);
+        List<CustomList> lists = listRepository.findByUserIdAndChangeVersionGreaterThanEqual(userId, since);
+        List<SyncTombstone> deleted = tombstoneRepository.findByUserIdAndChangeVersionGreaterThanEqual(userId, since);
+
+        Map<UUID, List<HabitEntry>> entriesByHabit = new HashMap<>();
+        for (HabitEntry entry : entries) {
+            entriesByHabit.computeIfAbsent(entry.getHabit().getId(), k -> new ArrayList<>()).add(entry);
+        }
+
+        return SyncResponse.builder()
+                .version(version)
+                .tasks(tasks)
+                .habits(habits)
+                .habitEntries(entriesByHabit)
+                .lists(lists)
+                .deleted(deleted)
+                .build();
+    }
+
+    /**
+     * Leaves a tombstone for a deleted row. Must run in the transaction that performs the delete.
+     */
+    public void recordDeletion(UUID userId, SyncEntityType type, UUID entityId) {
+        recordDeletions(userId, type, List.of(entityId));
+    }
+
+    public void recordDeletions(UUID userId, SyncEntityType type, Collection<UUID> entityIds) {
+        tombstoneRepository.saveAll(entityIds.stream()
+                .map(entityId -> SyncTombstone.builder()
+                        .userId(userId)
+                        .entityType(type)
+                        .entityId(entityId)
+                        .build())
+                .toList());
+    }
+}
@@ -5,20 +5,33 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.task.clockwrk.clockWork.dtos.TaskBatchResponse;
+import com.task.clockwrk.clockWork.dtos.TaskCursor;
+import com.task.clockwrk.clockWork.dtos.TaskOperation;
+import com.task.clockwrk.clockWork.dtos.TaskPageResponse;
+import com.task.clockwrk.clockWork.dtos.TaskQueryRequest;
+import com.task.clockwrk.clockWork.dtos.TaskSort;
+import com.task.clockwrk.clockWork.entity.SyncEntityType;
 import com.task.clockwrk.clockWork.entity.Task;
-import com.task.clockwrk.clockWork.entity.User;
 import com.task.clockwrk.clockWork.exception.ApiException;
 import com.task.clockwrk.clockWork.repository.TaskRepository;
-import com.task.clockwrk.clockWork.repository.UserRepository;
+import com.task.clockwrk.clockWork.repository.TaskSpecifications;
+import com.task.clockwrk.clockWork.security.CurrentUser;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -28,26 +41,188 @@ import lombok.extern.slf4j.Slf4j;
 public class TaskService {
 
     private final TaskRepository taskRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
+    private final SyncService syncService;
+    private final CollectionVersionService collectionVersions;
+    private final SnapshotCache snapshotCache;
+    private final MeterRegistry meterRegistry;
 
-    public List<Task> getAllTasks() {
-        return taskRepository.findByUserId(getCurrentUser().getId());
+    /**
+     * All tasks of the user, served from the snapshot cache while {@code version} (the tasks
+     * ETag) is unchanged. The completed filter is applied to the cached list.
+     */
+    public List<Task> getAllTasks(Boolean completed, String version) {
+        UUID userId = currentUser.getId();
+        List<Task> tasks = snapshotCache.get(userId, SyncEntityType.TASK, version,
+                () -> taskRepository.findByUserId(userId), TaskService::estimatedBytes);
+        if (completed == null) {
+            return tasks;
+        }
+        return tasks.stream().filter(task -> task.isCompleted() == completed).toList();
+    }
+
+    public TaskPageResponse queryTasks(TaskQueryRequest request) {
+        if (request.getDueFrom() != null && request.getDueTo() != null
+                && request.getDueFrom().isAfter(request.getDueTo())) {
+            throw ApiException.badRequest("dueFrom must be before or equal to dueTo");
+        }
+
+        TaskSort sort = request.getSort() != null ? request.getSort() : TaskSort.CREATED;
+        int limit = request.getLimit() != null ? request.getLimit() : 50;
+
+        List<Specification<Task>> filters = new ArrayList<>();
+        filters.add(TaskSpecifications.ownedBy(currentUser.getId()));
+        if (request.getListName() != null && !request.getListName().isBlank()) {
+            filters.add(TaskSpecifications.inList(request.getListName()));
+        }
+        if (request.getCompleted() != null) {
+            filters.add(TaskSpecifications.completed(request.getCompleted()));
+        }
+        if (request.getPriority() != null) {
+            filters.add(TaskSpecifications.withPriority(request.getPriority()));
+        }
+        if (request.getDueFrom() != null) {
+            filters.add(TaskSpecifications.dueOnOrAfter(request.getDueFrom()));
+        }
+        if (request.getDueTo() != null) {
+            filters.add(TaskSpecifications.dueOnOrBefore(request.getDueTo()));
+        }
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            filters.add(TaskSpecifications.after(TaskCursor.decode(request.getCursor(), sort)));
+        }
+
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<Task> rows = taskRepository.findBy(Specification.allOf(filters),
+                query -> query.sortBy(sort.toSort()).limit(limit + 1).all());
+
+        boolean hasMore = rows.size() > limit;
+        List<Task> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? TaskCursor.after(sort, items.get(items.size() - 1)).encode() : null;
+
+        return TaskPageResponse.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Transactional
     public Task createTask(Task task) {
-        User currentUser = getCurrentUser();
-        task.setUser(currentUser);
+        task.setUser(currentUser.getReference());
         task.setCreatedAt(Instant.now());
         
-        log.info("Creating task '{}' for user {}", task.getTitle(), currentUser.getEmail());
+        log.info("Creating task '{}' for user {}", task.getTitle(), currentUser.getId());
+        collectionVersions.bump(currentUser.getId(), SyncEntityType.TASK);
         return taskRepository.save(task);
     }
 
     @Transactional
     public Task updateTask(UUID id, Task updatedTask) {
         Task task = getTaskWithOwnershipCheck(id);
+        applyChanges(task, updatedTask);
+        collectionVersions.bump(currentUser.getId(), SyncEntityType.TASK);
+
+        log.info("Updated task '{}'", task.getTitle());
+        return taskRepository.save(task);
+    }
+
+    /**
+     * Applies create, update, toggle and delete operations in one transaction. All referenced
+     * tasks are loaded and ownership-checked with a single query; the writes are flushed at commit
+     * as JDBC batches. If any task is missing or foreign, nothing is applied.
+     */
+    @Transactional
+    public TaskBatchResponse applyBatch(List<TaskOperation> operations) {
+        UUID userId = currentUser.getId();
+
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            TaskOperation operation = operations.get(i);
+            validateOperation(i, operation);
+            if (operation.getType() != TaskOperation.Type.CREATE) {
+                ids.add(operation.getId());
+            }
+        }
+
+        Map<UUID, Task> owned = new HashMap<>();
+        if (!ids.isEmpty()) {
+            taskRepository.findByUserIdAndIdIn(userId, ids).forEach(task -> owned.put(task.getId(), task));
+        }
+        if (owned.size() != ids.size()) {
+            throw ApiException.notFound("Task not found");
+        }
+
+        Instant now = Instant.now();
+        List<Task> created = new ArrayList<>();
+        Map<UUID, Task> changed = new LinkedHashMap<>();
+        List<Task> deleted = new ArrayList<>();
+        for (TaskOperation operation : operations) {
+            switch (operation.getType()) {
+                case CREATE -> {
+                    Task task = operation.getTask();
+                    task.setId(null);
+                    task.setUser(currentUser.getReference());
+                    task.setCreatedAt(now);
+                    created.add(task);
+                }
+                case UPDATE -> {
+                    Task task = batchTarget(owned, operation.getId());
+                    applyChanges(task, operation.getTask());
+                    changed.put(task.getId(), task);
+                }
+                case TOGGLE -> {
+                    Task task = batchTarget(owned, operation.getId());
+                    task.setCompleted(!task.isCompleted());
+                    changed.put(task.getId(), task);
+                }
+                case DELETE -> {
+                    Task task = batchTarget(owned, operation.getId());
+                    owned.remove(task.getId());
+                    changed.remove(task.getId());
+                    deleted.add(task);
+                }
+            }
+        }
+
+        // Updates need no save: managed tasks are dirty-checked at flush
+        taskRepository.saveAll(created);
+        taskRepository.deleteAll(deleted);
+        List<UUID> deletedIds = deleted.stream().map(Task::getId).toList();
+        syncService.recordDeletions(userId, SyncEntityType.TASK, deletedIds);
+        collectionVersions.bump(userId, SyncEntityType.TASK);
+
+        log.info("Applied batch of {} task operations for user {}: {} created, {} changed, {} deleted",
+                operations.size(), userId, created.size(), changed.size(), deleted.size());
+
+        List<Task> saved = new ArrayList<>(created);
+        saved.addAll(changed.values());
+        return TaskBatchResponse.builder()
+                .saved(saved)
+                .deleted(deletedIds)
+                .build();
+    }
+
+    private void validateOperation(int index, TaskOperation operation) {
+        boolean needsId = operation.getType() != TaskOperation.Type.CREATE;
+        boolean needsTask = operation.getType() == TaskOperation.Type.CREATE
+                || operation.getType() == TaskOperation.Type.UPDATE;
+        if (needsId && operation.getId() == null) {
+            throw ApiException.badRequest("Operation " + index + " (" + operation.getType() + ") requires an id");
+        }
+        if (needsTask && operation.getTask() == null) {
+            throw ApiException.badRequest("Operation " + index + " (" + operation.getType() + ") requires a task");
+        }
+    }
 
+    // A task deleted earlier in the same batch no longer exists
+    private Task batchTarget(Map<UUID, Task> owned, UUID id) {
+        Task task = owned.get(id);
+        if (task == null) {
+            throw ApiException.notFound("Task not found");
+        }
+        return task;
+    }
+
+    private void applyChanges(Task task, Task updatedTask) {
         task.setTitle(updatedTask.getTitle());
         task.setDescription(updatedTask.getDescription());
         task.setCompleted(updatedTask.isCompleted());
@@ -60,9 +235,6 @@ public class TaskService {
         task.setEndTime(updatedTask.getEndTime());
         task.setAllDay(updatedTask.getAllDay());
         task.setDurationMinutes(updatedTask.getDurationMinutes());
-
-        log.info("Updated task '{}'", task.getTitle());
-        return taskRepository.save(task);
     }
     
     public List<Task> getTasksBetweenDates(String startDateStr, String endDateStr) {
@@ -80,24 +252,15 @@ public class TaskService {
             throw ApiException.badRequest("Start date must be before or equal to end date");
         }
         
-        User user = getCurrentUser();
+        UUID userId = currentUser.getId();
+        ZoneId zone = ZoneId.systemDefault();
         
-        return taskRepository.findByUserId(user.getId()).stream()
-                .filter(task -> {
-                    if (task.getDueDate() != null) {
-                        return !task.getDueDate().isBefore(startDate) && 
-                               !task.getDueDate().isAfter(endDate);
-                    }
-                    if (task.getStartTime() != null) {
-                        LocalDate taskDate = task.getStartTime()
-                                .atZone(ZoneId.systemDefault())
-                                .toLocalDate();
-                        return !taskDate.isBefore(startDate) && 
-                               !taskDate.isAfter(endDate);
-                    }
-                    return false;
-                })
-                .toList();
+        return meterRegistry.timer("clockwrk.tasks.calendar").record(() -> taskRepository.findInCalendarRange(
+                userId,
+                startDate,
+                endDate,
+                startDate.atStartOfDay(zone).toInstant(),
+                endDate.plusDays(1).atStartOfDay(zone).toInstant()));
     }
     
     @Transactional
@@ -131,6 +294,7 @@ public class TaskService {
             }
         }
         
+        collectionVersions.bump(currentUser.getId(), SyncEntityType.TASK);
         log.info("Rescheduled task '{}' to {}", task.getTitle(), newStart);
         return taskRepository.save(task);
     }
@@ -140,6 +304,7 @@ public class TaskService {
         Task task = getTaskWithOwnershipCheck(id);
         task.setCompleted(!task.isCompleted());
         taskRepository.save(task);
+        collectionVersions.bump(currentUser.getId(), SyncEntityType.TASK);
         log.info("Toggled completion for task '{}': {}", task.getTitle(), task.isCompleted());
     }
 
@@ -147,30 +312,22 @@ public class TaskService {
     public void deleteTask(UUID id) {
         Task task = getTaskWithOwnershipCheck(id);
         taskRepository.delete(task);
+        syncService.recordDeletion(currentUser.getId(), SyncEntityType.TASK, task.getId());
+        collectionVersions.bump(currentUser.getId(), SyncEntityType.TASK);
         log.info("Deleted task '{}'", task.getTitle());
     }
 
+    // Tasks of other users are reported as missing, so ids cannot be probed
     private Task getTaskWithOwnershipCheck(UUID id) {
-        Task task = taskRepository.findById(id)
+        return taskRepository.findByIdAndUserId(id, currentUser.getId())
                 .orElseThrow(() -> ApiException.notFound("Task not found"));
-        
-        User currentUser = getCurrentUser();
-        if (!task.getUser().getId().equals(currentUser.getId())) {
-            throw ApiException.forbidden("You don't have permission to access this task");
-        }
-        
-        return task;
     }
 
-    private User getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        
-        if (!(principal instanceof UserDetails)) {
-            throw ApiException.unauthorized("Not authenticated");
-        }
-        
-        String email = ((UserDetails) principal).getUsername();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> ApiException.notFound("User not found"));
+    // Object, UUID and date/time headers plus the text fields
+    private static int estimatedBytes(Task task) {
+        return 256
+                + SnapshotCache.stringBytes(task.getTitle())
+                + SnapshotCache.stringBytes(task.getDescription())
+                + SnapshotCache.stringBytes(task.getListName());
     }
 }
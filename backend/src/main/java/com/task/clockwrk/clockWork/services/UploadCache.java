@@ -0,0 +1,64 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Contents of the most requested small uploads (avatars), held in memory within
+ * {@code file.upload.cache.max-size}. Stored files never change under their name, so entries
+ * only leave by eviction or when the file is deleted.
+ */
+@Component
+public class UploadCache {
+
+    private final Cache<String, byte[]> contents;
+    private final long maxFileSize;
+
+    public UploadCache(
+            MeterRegistry meterRegistry,
+            @Value("${file.upload.cache.max-size:32MB}") DataSize maxSize,
+            @Value("${file.upload.cache.max-file-size:256KB}") DataSize maxFileSize
+    ) {
+        this.maxFileSize = maxFileSize.toBytes();
+        this.contents = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String name, byte[] content) -> content.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, contents, "uploads");
+    }
+
+    /** The file's bytes, read on first use; null for files too large to keep in memory. */
+    public byte[] get(String name, Path file, long size) throws IOException {
+        if (size > maxFileSize) {
+            return null;
+        }
+        try {
+            return contents.get(name, key -> {
+                try {
+                    return Files.readAllBytes(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public void invalidate(String name) {
+        contents.invalidate(name);
+    }
+}
@@ -0,0 +1,384 @@
+package com.task.clockwrk.clockWork.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.task.clockwrk.clockWork.entity.StoredFile;
+import com.task.clockwrk.clockWork.exception.ApiException;
+import com.task.clockwrk.clockWork.repository.StoredFileRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Content-addressed file store behind {@code /uploads}. Uploads are hashed while they are
+ * written to disk and stored as {@code <sha256>.<ext>}, so identical files share one copy.
+ * Profiles that point at a file hold a reference to it; files nobody references are deleted
+ * once they have been unreferenced for {@code file.upload.unreferenced-retention}.
+ * <p>
+ * The files themselves live in a {@link BlobStorage}. With a remote backend, files are read
+ * through a local copy in {@code .cache}, bounded by {@code file.storage.cache.max-size}.
+ * Files written to the upload directory before the switch to a remote backend are still served
+ * from there, and with {@code file.storage.upload-local-files} they are moved into the remote
+ * storage after startup.
+ */
+@Service
+@Slf4j
+public class UploadStore {
+
+    private static final long TRANSFER_CHUNK = 1 << 20;
+    private static final int COLLECT_BATCH_SIZE = 100;
+    // Tail of a URL that points into the store, optionally at one of its image variants
+    private static final Pattern STORED_NAME = Pattern.compile("/uploads/(?:\\d+/)?(c?[0-9a-f]{64})\\.[a-z0-9]+$");
+    private static final Pattern STORED_URL = Pattern.compile("/uploads/(c?[0-9a-f]{64}\\.[a-z0-9]+)$");
+
+    private final StoredFileRepository storedFileRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final UploadCache uploadCache;
+    private final BlobStorage blobStorage;
+    private final Path root;
+    private final Path incoming;
+    private final Path variants;
+    private final Path cache;
+    // Local copies of remote blobs: name -> size, fetched on virtual threads outside the entry locks
+    private final AsyncCache<String, Long> cached;
+    private final ExecutorService fetches = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration unreferencedRetention;
+
+    @Value("${file.storage.upload-local-files:false}")
+    private boolean uploadLocalFiles;
+
+    public UploadStore(
+            StoredFileRepository storedFileRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            UploadCache uploadCache,
+            BlobStorage blobStorage,
+            @Value("${file.upload.dir:uploads}") String root,
+            @Value("${file.upload.unreferenced-retention:24h}") Duration unreferencedRetention,
+            @Value("${file.storage.cache.max-size:1GB}") DataSize cacheSize
+    ) throws IOException {
+        this.storedFileRepository = storedFileRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.uploadCache = uploadCache;
+        this.blobStorage = blobStorage;
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        // Same file system as the store, so finished uploads are moved in with a rename
+        this.incoming = Files.createDirectories(this.root.resolve(".incoming"));
+        this.variants = Files.createDirectories(this.root.resolve(".variants"));
+        this.cache = Files.createDirectories(this.root.resolve(".cache"));
+        this.unreferencedRetention = unreferencedRetention;
+        // Copies left from a previous run are not accounted for; start over
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(cache)) {
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+            }
+        }
+        this.cached = Caffeine.newBuilder()
+                .maximumWeight(cacheSize.toBytes())
+                .weigher((String name, Long size) -> (int) Math.min(size, Integer.MAX_VALUE))
+                // Runs with the entry still locked, so a copy being fetched again is not deleted
+                .evictionListener((String name, Long size, RemovalCause cause) -> deleteCopy(name))
+                .executor(fetches)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cached, "upload-copies");
+        log.info("Upload store at {}", this.root);
+    }
+
+    /**
+     * Writes the content to disk while hashing it and files it under its hash. When the same
+     * bytes are already stored, the new copy is dropped and the existing name returned.
+     */
+    public Stored store(InputStream content, String contentType, String extension, long maxBytes) throws IOException {
+        Path part = createIncoming();
+        try {
+            MessageDigest sha256 = sha256();
+            long size = 0;
+            try (FileChannel target = FileChannel.open(part, StandardOpenOption.WRITE);
+                    ReadableByteChannel source = Channels.newChannel(new DigestInputStream(content, sha256))) {
+                long transferred;
+                // Asking for one byte past the limit tells an oversized upload from one that fits
+                while ((transferred = target.transferFrom(source, size, Math.min(TRANSFER_CHUNK, maxBytes + 1 - size))) > 0) {
+                    size += transferred;
+                    if (size > maxBytes) {
+                        throw ApiException.badRequest("File size exceeds maximum allowed size of " + (maxBytes / 1024 / 1024) + "MB");
+                    }
+                }
+            }
+            if (size == 0) {
+                throw ApiException.badRequest("Please select a file to upload");
+            }
+
+            return adopt(part, HexFormat.of().formatHex(sha256.digest()), contentType, extension, size);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    /** A new empty file for an upload in progress, on the same file system as the store. */
+    public Path createIncoming() throws IOException {
+        return Files.createTempFile(incoming, "upload-", ".part");
+    }
+
+    /**
+     * Files a fully written incoming file under {@code hash} in the blob storage. Whatever is
+     * left of the incoming file afterwards is for the caller to delete.
+     */
+    public Stored adopt(Path part, String hash, String contentType, String extension, long size) throws IOException {
+        // The row goes first: from here on the collector leaves this hash alone for the grace period
+        String fileName = storedFileRepository.registerUpload(hash, hash + extension, contentType, size);
+        boolean deduplicated = blobStorage.exists(fileName);
+        if (!deduplicated) {
+            blobStorage.put(fileName, part, contentType);
+            if (blobStorage.localPath(fileName).isEmpty()) {
+                // A fresh upload is usually displayed right away: keep the bytes as the local copy
+                Files.move(part, cache.resolve(fileName), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                cached.put(fileName, CompletableFuture.completedFuture(size));
+            }
+        }
+        return new Stored(fileName, size, deduplicated);
+    }
+
+    /**
+     * A file on this node's disk with the content stored under {@code fileName}, fetched from
+     * remote storage on first use; null when there is no such file.
+     */
+    public Path resolve(String fileName) throws IOException {
+        Path file = root.resolve(fileName).normalize();
+        if (!file.getParent().equals(root)) {
+            return null;
+        }
+        Optional<Path> local = blobStorage.localPath(fileName);
+        if (local.isPresent()) {
+            return Files.isRegularFile(local.get()) ? local.get() : null;
+        }
+        // Left in the upload directory from before the remote storage was configured
+        if (Files.isRegularFile(file)) {
+            return file;
+        }
+        try {
+            // One fetch per name at a time; concurrent readers wait for it without holding any lock
+            return cached.get(fileName, this::fetch).join() == null ? null : cache.resolve(fileName);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /** A URL clients can fetch the stored file from without going through this service, if the storage offers one. */
+    public Optional<URI> presignedUrl(String fileName, Duration ttl) {
+        // Files only this node has cannot be read from the storage
+        Path file = root.resolve(fileName).normalize();
+        if (file.getParent().equals(root) && Files.isRegularFile(file) && blobStorage.localPath(fileName).isEmpty()) {
+            return Optional.empty();
+        }
+        return blobStorage.presignedUrl(fileName, ttl);
+    }
+
+    /**
+     * Moves files left in the upload directory into the remote storage, in the background, when
+     * {@code file.storage.upload-local-files} is set. Each is deleted locally once it is stored;
+     * until then {@link #resolve} serves it from the directory.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void uploadLocalFiles() {
+        if (!uploadLocalFiles) {
+            return;
+        }
+        fetches.execute(() -> {
+            int uploaded = 0;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(root,
+                    file -> Files.isRegularFile(file) && !file.getFileName().toString().startsWith("."))) {
+                for (Path file : files) {
+                    String fileName = file.getFileName().toString();
+                    if (blobStorage.localPath(fileName).isPresent()) {
+                        // The directory is the storage itself
+                        return;
+                    }
+                    if (!blobStorage.exists(fileName)) {
+                        String contentType = MediaTypeFactory.getMediaType(fileName)
+                                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+                        blobStorage.put(fileName, file, contentType);
+                    }
+                    Files.deleteIfExists(file);
+                    uploaded++;
+                }
+            } catch (IOException e) {
+                log.error("Moving local uploads into the storage stopped after {} files", uploaded, e);
+                return;
+            }
+            log.info("Moved {} local uploads into the storage", uploaded);
+        });
+    }
+
+    /** Where the {@code size} pixel variant of a stored image is kept. */
+    public Path variant(String fileName, int size) {
+        return variants.resolve(Integer.toString(size)).resolve(fileName);
+    }
+
+    /** The URL of the {@code size} pixel variant for a store URL; other URLs are returned as they are. */
+    public static String variantUrl(String url, int size) {
+        if (url == null) {
+            return null;
+        }
+        Matcher matcher = STORED_URL.matcher(url);
+        return matcher.find() ? url.substring(0, matcher.start(1)) + size + "/" + matcher.group(1) : url;
+    }
+
+    /** Takes a reference on the stored file behind the URL. URLs pointing elsewhere are ignored. */
+    public void retain(String url) {
+        String hash = storedHash(url);
+        if (hash != null) {
+            storedFileRepository.retain(hash);
+        }
+    }
+
+    /** Drops a reference taken with {@link #retain}. */
+    public void release(String url) {
+        String hash = storedHash(url);
+        if (hash != null) {
+            storedFileRepository.release(hash);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${file.upload.collect-interval:1h}")
+    public void collectUnreferenced() {
+        Instant cutoff = Instant.now().minus(unreferencedRetention);
+        int deleted;
+        do {
+            // Files are deleted while their rows are locked, before the rows go
+            deleted = transactionTemplate.execute(status -> {
+                List<StoredFile> unreferenced = storedFileRepository.lockUnreferenced(cutoff, COLLECT_BATCH_SIZE);
+                for (StoredFile file : unreferenced) {
+                    try {
+                        blobStorage.delete(file.getFileName());
+                        Files.deleteIfExists(root.resolve(file.getFileName()));
+                        cached.synchronous().asMap().compute(file.getFileName(), (name, size) -> {
+                            deleteCopy(name);
+                            return null;
+                        });
+                        uploadCache.invalidate(file.getFileName());
+                        deleteVariants(file.getFileName());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                storedFileRepository.deleteAll(unreferenced);
+                return unreferenced.size();
+            });
+            if (deleted > 0) {
+                meterRegistry.counter("clockwrk.files.collected").increment(deleted);
+                log.info("Deleted {} unreferenced uploads", deleted);
+            }
+        } while (deleted == COLLECT_BATCH_SIZE);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetches.shutdown();
+    }
+
+    private Long fetch(String fileName) {
+        Path part = incoming.resolve("fetch-" + UUID.randomUUID() + ".part");
+        try {
+            if (!blobStorage.download(fileName, part)) {
+                return null;
+            }
+            long size = Files.size(part);
+            Files.move(part, cache.resolve(fileName), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            meterRegistry.counter("clockwrk.files.fetched").increment();
+            return size;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException e) {
+                log.warn("Could not delete {}", part, e);
+            }
+        }
+    }
+
+    private void deleteCopy(String fileName) {
+        try {
+            Files.deleteIfExists(cache.resolve(fileName));
+        } catch (IOException e) {
+            log.warn("Could not delete cached copy of {}", fileName, e);
+        }
+    }
+
+    private void deleteVariants(String fileName) throws IOException {
+        try (DirectoryStream<Path> sizes = Files.newDirectoryStream(variants)) {
+            for (Path size : sizes) {
+                Files.deleteIfExists(size.resolve(fileName));
+                uploadCache.invalidate(size.getFileName() + "/" + fileName);
+            }
+        }
+    }
+
+    private static String storedHash(String url) {
+        if (url == null) {
+            return null;
+        }
+        Matcher matcher = STORED_NAME.matcher(url);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Name the content is served under, its size and whether the same bytes were already stored. */
+    public record Stored(String fileName, long sizeBytes, boolean deduplicated) {
+    }
+}
@@ -18,14 +18,19 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UploadStore uploadStore;
 
     @Transactional
     public User updateProfile(User user, UpdateProfileRequest request) {
         if (request.getName() != null && !request.getName().isBlank()) {
             user.setName(request.getName().trim());
         }
-        if (request.getProfilePictureUrl() != null) {
-            user.setProfilePictureUrl(request.getProfilePictureUrl());
+        String picture = request.getProfilePictureUrl();
+        if (picture != null && !picture.equals(user.getProfilePictureUrl())) {
+            // Uploaded pictures are shared between users and only deleted once nobody uses them
+            uploadStore.retain(picture);
+            uploadStore.release(user.getProfilePictureUrl());
+            user.setProfilePictureUrl(picture);
         }
         
         log.info("Updated profile for user: {}", user.getEmail());
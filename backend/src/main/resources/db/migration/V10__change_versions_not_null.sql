@@ -0,0 +1,14 @@
+-- Rows written before V3 have no change version and would never be returned by a delta sync.
+-- Stamp them now; later writes are stamped by the V7 trigger, so the column can be required.
+
+UPDATE tasks SET change_version = nextval('change_version_seq') WHERE change_version IS NULL;
+UPDATE habits SET change_version = nextval('change_version_seq') WHERE change_version IS NULL;
+UPDATE habit_entries SET change_version = nextval('change_version_seq') WHERE change_version IS NULL;
+UPDATE custom_lists SET change_version = nextval('change_version_seq') WHERE change_version IS NULL;
+UPDATE sync_tombstones SET change_version = nextval('change_version_seq') WHERE change_version IS NULL;
+
+ALTER TABLE tasks ALTER COLUMN change_version SET NOT NULL;
+ALTER TABLE habits ALTER COLUMN change_version SET NOT NULL;
+ALTER TABLE habit_entries ALTER COLUMN change_version SET NOT NULL;
+ALTER TABLE custom_lists ALTER COLUMN change_version SET NOT NULL;
+ALTER TABLE sync_tombstones ALTER COLUMN change_version SET NOT NULL;
@@ -0,0 +1,30 @@
+-- A sequence value is taken when a row is written but only becomes visible when its
+-- transaction commits, so a sync could hand out a watermark past a row that was still
+-- uncommitted and never return it. Rows are now stamped with the id of the transaction that
+-- wrote them, and a sync's watermark is the oldest transaction still running when it starts
+-- (pg_snapshot_xmin): every version below it belongs to a finished transaction.
+-- Transaction ids are offset past the last sequence value, so versions keep growing and
+-- watermarks handed out before this migration stay valid.
+
+DO $$
+DECLARE
+    base BIGINT := nextval('change_version_seq');
+BEGIN
+    EXECUTE format($f$
+        CREATE OR REPLACE FUNCTION current_change_version() RETURNS bigint AS
+            'SELECT %s + pg_current_xact_id()::text::bigint' LANGUAGE sql VOLATILE
+    $f$, base);
+    EXECUTE format($f$
+        CREATE OR REPLACE FUNCTION change_version_watermark() RETURNS bigint AS
+            'SELECT %s + pg_snapshot_xmin(pg_current_snapshot())::text::bigint' LANGUAGE sql VOLATILE
+    $f$, base);
+END;
+$$;
+
+-- Bulk loads no longer keep their own versions: only the writing transaction's id is safe
+CREATE OR REPLACE FUNCTION stamp_change_version() RETURNS trigger AS $$
+BEGIN
+    NEW.change_version := current_change_version();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
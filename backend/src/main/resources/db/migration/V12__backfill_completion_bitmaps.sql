@@ -0,0 +1,23 @@
+-- Builds the completion bitmap of every habit and year that has completed entries, so a missing
+-- bitmap always means an empty year. Reads no longer build bitmaps lazily, and toggles create
+-- the row of a new year themselves.
+
+CREATE FUNCTION completion_bitmap_add(bits BYTEA, day_index INTEGER) RETURNS BYTEA
+    AS 'SELECT set_bit(bits, day_index, 1)' LANGUAGE sql IMMUTABLE STRICT;
+
+-- 46 zero bytes: one bit per day of a leap year, see HabitCompletionBitmap
+CREATE AGGREGATE completion_bitmap(INTEGER) (
+    SFUNC = completion_bitmap_add,
+    STYPE = BYTEA,
+    INITCOND = '\x00000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000'
+);
+
+INSERT INTO habit_completion_years (habit_id, year, bits)
+SELECT habit_id, extract(YEAR FROM date)::INTEGER, completion_bitmap(extract(DOY FROM date)::INTEGER - 1)
+FROM habit_entries
+WHERE completed
+GROUP BY habit_id, extract(YEAR FROM date)
+ON CONFLICT (habit_id, year) DO NOTHING;
+
+DROP AGGREGATE completion_bitmap(INTEGER);
+DROP FUNCTION completion_bitmap_add(BYTEA, INTEGER);
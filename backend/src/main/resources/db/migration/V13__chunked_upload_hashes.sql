@@ -0,0 +1,2 @@
+-- Files uploaded in chunks are keyed by their prefixed chunk-hash tree, one character longer than a plain hash
+ALTER TABLE stored_files ALTER COLUMN hash TYPE VARCHAR(65);
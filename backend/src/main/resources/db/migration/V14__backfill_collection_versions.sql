@@ -0,0 +1,8 @@
+-- V8 left collection_versions empty, so every existing user shared the ETags of version 0 until
+-- their first change. Give each existing user and collection a counter of its own.
+
+INSERT INTO collection_versions (user_id, collection, version)
+SELECT users.id, collections.collection, nextval('change_version_seq')
+FROM users
+CROSS JOIN (VALUES ('TASK'), ('HABIT'), ('HABIT_ENTRY'), ('CUSTOM_LIST')) AS collections (collection)
+ON CONFLICT (user_id, collection) DO NOTHING;
@@ -0,0 +1,70 @@
+-- Schema as it existed before migrations were kept in the repository. Databases created
+-- earlier are baselined at this version and skip this script.
+
+CREATE TABLE users (
+    id                  UUID PRIMARY KEY,
+    email               VARCHAR(255) NOT NULL UNIQUE,
+    password_hash       VARCHAR(255) NOT NULL,
+    name                VARCHAR(255),
+    profile_picture_url VARCHAR(255),
+    otp                 VARCHAR(255),
+    otp_expiry          TIMESTAMP(6) WITH TIME ZONE,
+    email_verified      BOOLEAN,
+    created_at          TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE TABLE tasks (
+    id               UUID PRIMARY KEY,
+    user_id          UUID NOT NULL REFERENCES users (id),
+    title            VARCHAR(255) NOT NULL,
+    description      TEXT,
+    completed        BOOLEAN NOT NULL,
+    due_date         DATE,
+    start_time       TIMESTAMP(6) WITH TIME ZONE,
+    end_time         TIMESTAMP(6) WITH TIME ZONE,
+    all_day          BOOLEAN,
+    duration_minutes INTEGER,
+    priority         INTEGER NOT NULL,
+    list_name        VARCHAR(255),
+    created_at       TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE TABLE habits (
+    id           UUID PRIMARY KEY,
+    user_id      UUID NOT NULL REFERENCES users (id),
+    name         VARCHAR(255) NOT NULL,
+    description  TEXT,
+    category     VARCHAR(255),
+    frequency    VARCHAR(255),
+    target_count INTEGER NOT NULL,
+    color        VARCHAR(255),
+    icon         VARCHAR(255),
+    archived     BOOLEAN NOT NULL,
+    created_at   TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE TABLE habit_entries (
+    id           UUID PRIMARY KEY,
+    habit_id     UUID NOT NULL REFERENCES habits (id),
+    date         DATE NOT NULL,
+    completed    BOOLEAN NOT NULL,
+    count        INTEGER,
+    notes        VARCHAR(255),
+    created_at   TIMESTAMP(6) WITH TIME ZONE,
+    completed_at TIMESTAMP(6) WITH TIME ZONE,
+    UNIQUE (habit_id, date)
+);
+
+CREATE TABLE custom_lists (
+    id      UUID PRIMARY KEY,
+    user_id UUID NOT NULL REFERENCES users (id),
+    name    VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE refresh_tokens (
+    id         UUID PRIMARY KEY,
+    user_id    UUID NOT NULL,
+    token      VARCHAR(500) NOT NULL UNIQUE,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    revoked    BOOLEAN NOT NULL
+);
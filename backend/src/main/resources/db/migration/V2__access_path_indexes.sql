@@ -0,0 +1,16 @@
+-- Every per-user read filters on user_id first. Composite indexes lead with user_id so that one
+-- index serves both the plain "all rows of this user" lookup and the sorted/filtered variants.
+
+-- findByUserId, calendar range, keyset pages
+CREATE INDEX IF NOT EXISTS idx_tasks_user_due_date ON tasks (user_id, due_date);
+CREATE INDEX IF NOT EXISTS idx_tasks_user_start_time ON tasks (user_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_tasks_user_created_at ON tasks (user_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_tasks_user_priority ON tasks (user_id, priority DESC, id);
+
+-- findByUserIdAndArchivedFalse, findByUserId
+CREATE INDEX IF NOT EXISTS idx_habits_user_archived ON habits (user_id, archived);
+
+-- custom_lists is served by idx_custom_lists_user_change_version from V3
+
+-- revokeByUserId on every login
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user ON refresh_tokens (user_id);
@@ -0,0 +1,25 @@
+-- Delta sync: a global sequence stamps every insert and update, and deletes leave
+-- tombstones.
+
+CREATE SEQUENCE IF NOT EXISTS change_version_seq;
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS change_version BIGINT;
+ALTER TABLE habits ADD COLUMN IF NOT EXISTS change_version BIGINT;
+ALTER TABLE habit_entries ADD COLUMN IF NOT EXISTS change_version BIGINT;
+ALTER TABLE custom_lists ADD COLUMN IF NOT EXISTS change_version BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_user_change_version ON tasks (user_id, change_version);
+CREATE INDEX IF NOT EXISTS idx_habits_user_change_version ON habits (user_id, change_version);
+CREATE INDEX IF NOT EXISTS idx_habit_entries_habit_change_version ON habit_entries (habit_id, change_version);
+CREATE INDEX IF NOT EXISTS idx_custom_lists_user_change_version ON custom_lists (user_id, change_version);
+
+CREATE TABLE IF NOT EXISTS sync_tombstones (
+    id             UUID PRIMARY KEY,
+    user_id        UUID NOT NULL,
+    entity_type    VARCHAR(20) NOT NULL,
+    entity_id      UUID NOT NULL,
+    deleted_at     TIMESTAMP(6) WITH TIME ZONE,
+    change_version BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_sync_tombstones_user_version ON sync_tombstones (user_id, change_version);
@@ -0,0 +1,14 @@
+-- Persisted habit statistics, refreshed on write and by the nightly rollover job
+
+CREATE TABLE IF NOT EXISTS habit_stats (
+    habit_id               UUID PRIMARY KEY,
+    current_streak         INTEGER NOT NULL,
+    longest_streak         INTEGER NOT NULL,
+    total_completions      INTEGER NOT NULL,
+    completions_this_week  INTEGER NOT NULL,
+    completions_this_month INTEGER NOT NULL,
+    as_of                  DATE NOT NULL,
+    updated_at             TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS idx_habit_stats_as_of ON habit_stats (as_of);
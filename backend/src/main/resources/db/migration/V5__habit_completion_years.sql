@@ -0,0 +1,9 @@
+-- Per-year habit completion bitmaps. Keyed by habit first so that a habit's years are
+-- read with one range scan.
+
+CREATE TABLE IF NOT EXISTS habit_completion_years (
+    habit_id UUID NOT NULL,
+    year     INTEGER NOT NULL,
+    bits     BYTEA NOT NULL,
+    PRIMARY KEY (habit_id, year)
+);
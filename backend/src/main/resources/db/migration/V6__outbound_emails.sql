@@ -0,0 +1,16 @@
+-- Mail outbox drained by EmailDispatcher
+
+CREATE TABLE IF NOT EXISTS outbound_emails (
+    id              UUID PRIMARY KEY,
+    recipient       VARCHAR(255) NOT NULL,
+    subject         VARCHAR(255) NOT NULL,
+    body            TEXT NOT NULL,
+    status          VARCHAR(20) NOT NULL,
+    attempts        INTEGER NOT NULL,
+    next_attempt_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_error      VARCHAR(1000),
+    created_at      TIMESTAMP(6) WITH TIME ZONE,
+    sent_at         TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbound_emails_status_next_attempt ON outbound_emails (status, next_attempt_at);
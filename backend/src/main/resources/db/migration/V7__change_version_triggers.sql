@@ -0,0 +1,32 @@
+-- Change versions are stamped by a trigger instead of by the INSERT/UPDATE Hibernate renders.
+-- Hibernate then has no generated value to read back per row and can batch these statements.
+-- Inserts that already carry a version (bulk loads) keep it; updates always take a new one.
+
+CREATE OR REPLACE FUNCTION stamp_change_version() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' OR NEW.change_version IS NULL THEN
+        NEW.change_version := nextval('change_version_seq');
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS tasks_change_version ON tasks;
+CREATE TRIGGER tasks_change_version BEFORE INSERT OR UPDATE ON tasks
+    FOR EACH ROW EXECUTE FUNCTION stamp_change_version();
+
+DROP TRIGGER IF EXISTS habits_change_version ON habits;
+CREATE TRIGGER habits_change_version BEFORE INSERT OR UPDATE ON habits
+    FOR EACH ROW EXECUTE FUNCTION stamp_change_version();
+
+DROP TRIGGER IF EXISTS habit_entries_change_version ON habit_entries;
+CREATE TRIGGER habit_entries_change_version BEFORE INSERT OR UPDATE ON habit_entries
+    FOR EACH ROW EXECUTE FUNCTION stamp_change_version();
+
+DROP TRIGGER IF EXISTS custom_lists_change_version ON custom_lists;
+CREATE TRIGGER custom_lists_change_version BEFORE INSERT OR UPDATE ON custom_lists
+    FOR EACH ROW EXECUTE FUNCTION stamp_change_version();
+
+DROP TRIGGER IF EXISTS sync_tombstones_change_version ON sync_tombstones;
+CREATE TRIGGER sync_tombstones_change_version BEFORE INSERT OR UPDATE ON sync_tombstones
+    FOR EACH ROW EXECUTE FUNCTION stamp_change_version();
@@ -0,0 +1,8 @@
+-- Per-user change counters of the task, habit, habit entry and list collections, used as ETags
+
+CREATE TABLE IF NOT EXISTS collection_versions (
+    user_id    UUID NOT NULL,
+    collection VARCHAR(20) NOT NULL,
+    version    BIGINT NOT NULL,
+    PRIMARY KEY (user_id, collection)
+);
@@ -0,0 +1,14 @@
+-- Content-addressed uploads: one row per distinct file, named by the SHA-256 of its bytes
+
+CREATE TABLE IF NOT EXISTS stored_files (
+    hash         VARCHAR(64) PRIMARY KEY,
+    file_name    VARCHAR(80) NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    size_bytes   BIGINT NOT NULL,
+    ref_count    INTEGER NOT NULL,
+    created_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    released_at  TIMESTAMP(6) WITH TIME ZONE
+);
+
+-- Garbage collection only ever looks at unreferenced files
+CREATE INDEX IF NOT EXISTS idx_stored_files_unreferenced ON stored_files (released_at) WHERE ref_count = 0;
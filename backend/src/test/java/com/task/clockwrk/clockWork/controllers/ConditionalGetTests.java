@@ -0,0 +1,55 @@
+package com.task.clockwrk.clockWork.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+class ConditionalGetTests {
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void matchingTagSkipsTheBody() {
+		ResponseEntity<List<String>> response = ConditionalGet.respond(request("W/\"old\", \"3f-2a\""), "3f-2a", this::load);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(response.getHeaders().getETag()).isEqualTo("\"3f-2a\"");
+		assertThat(response.getBody()).isNull();
+		assertThat(response.getHeaders().getVary()).containsExactly(HttpHeaders.AUTHORIZATION);
+		assertThat(loads).hasValue(0);
+	}
+
+	@Test
+	void changedOrMissingTagReturnsTheBody() {
+		ResponseEntity<List<String>> changed = ConditionalGet.respond(request("\"3f-29\""), "3f-2a", this::load);
+		ResponseEntity<List<String>> unconditional = ConditionalGet.respond(request(null), "3f-2a", this::load);
+
+		assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(changed.getBody()).containsExactly("task");
+		assertThat(changed.getHeaders().getCacheControl()).contains("no-cache");
+		assertThat(changed.getHeaders().getVary()).containsExactly(HttpHeaders.AUTHORIZATION);
+		assertThat(unconditional.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(loads).hasValue(2);
+	}
+
+	private List<String> load() {
+		loads.incrementAndGet();
+		return List.of("task");
+	}
+
+	private static ServletWebRequest request(String ifNoneMatch) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+		if (ifNoneMatch != null) {
+			request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		return new ServletWebRequest(request);
+	}
+}
@@ -0,0 +1,180 @@
+package com.task.clockwrk.clockWork.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.task.clockwrk.clockWork.entity.SyncEntityType;
+import com.task.clockwrk.clockWork.exception.GlobalExceptionHandler;
+import com.task.clockwrk.clockWork.security.CurrentUser;
+import com.task.clockwrk.clockWork.security.StreamTickets;
+import com.task.clockwrk.clockWork.services.ChangeStream;
+import com.task.clockwrk.clockWork.services.CollectionChangedEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+
+class EventStreamControllerTests {
+
+	private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+	private final UUID userId = UUID.randomUUID();
+	private ChangeStream changeStream;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		changeStream = new ChangeStream(new SimpleMeterRegistry(), Duration.ofMinutes(5), Duration.ofSeconds(5),
+				Duration.ofMinutes(10), 2, 3, 100);
+		CurrentUser currentUser = mock(CurrentUser.class);
+		when(currentUser.getId()).thenReturn(userId);
+
+		mockMvc = MockMvcBuilders.standaloneSetup(new EventStreamController(changeStream,
+				new StreamTickets(Duration.ofSeconds(30))))
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.setCustomArgumentResolvers(new HandlerMethodArgumentResolver() {
+					@Override
+					public boolean supportsParameter(MethodParameter parameter) {
+						return parameter.getParameterType() == CurrentUser.class;
+					}
+
+					@Override
+					public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer container,
+							NativeWebRequest request, WebDataBinderFactory binderFactory) {
+						return currentUser;
+					}
+				})
+				.build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		changeStream.shutdown();
+	}
+
+	@Test
+	void committedChangesReachOpenStreams() throws Exception {
+		MvcResult stream = open(null);
+
+		publish(SyncEntityType.TASK);
+
+		await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(body(stream))
+				.contains("event:change")
+				.contains("\"collection\":\"TASK\""));
+	}
+
+	@Test
+	void reconnectReplaysOnlyMissedEvents() throws Exception {
+		MvcResult first = open(null);
+		publish(SyncEntityType.TASK);
+		String seen = firstEventId(first);
+		publish(SyncEntityType.HABIT);
+		publish(SyncEntityType.HABIT_ENTRY);
+
+		MvcResult resumed = open(seen);
+
+		await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(body(resumed))
+				.contains("\"collection\":\"HABIT\"")
+				.contains("\"collection\":\"HABIT_ENTRY\"")
+				.doesNotContain("\"collection\":\"TASK\"")
+				.doesNotContain("event:resync"));
+	}
+
+	@Test
+	void idsOlderThanTheHistoryAskForResync() throws Exception {
+		MvcResult first = open(null);
+		publish(SyncEntityType.TASK);
+		String seen = firstEventId(first);
+		// The history holds two events, so the one right after the seen id is gone
+		publish(SyncEntityType.TASK);
+		publish(SyncEntityType.HABIT);
+		publish(SyncEntityType.HABIT_ENTRY);
+
+		MvcResult stale = open(seen);
+		MvcResult garbled = open("not-a-number");
+
+		await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+			assertThat(body(stale)).contains("event:resync").doesNotContain("event:change");
+			assertThat(body(garbled)).contains("event:resync");
+		});
+	}
+
+	@Test
+	void streamsPerUserAreCapped() throws Exception {
+		open(null);
+		open(null);
+		open(null);
+
+		mockMvc.perform(get("/api/events"))
+				.andExpect(status().isTooManyRequests());
+	}
+
+	@Test
+	void timedOutStreamsEndNormallyAndFreeTheirSlot() throws Exception {
+		MvcResult stream = open(null);
+		open(null);
+		open(null);
+
+		MockAsyncContext async = (MockAsyncContext) stream.getRequest().getAsyncContext();
+		for (AsyncListener listener : async.getListeners()) {
+			listener.onTimeout(new AsyncEvent(async));
+		}
+
+		// An unhandled timeout would reach the error handler and be logged as a failure
+		mockMvc.perform(asyncDispatch(stream))
+				.andExpect(status().isOk())
+				.andExpect(result -> assertThat(result.getResolvedException()).isNull());
+		open(null);
+	}
+
+	private MvcResult open(String lastEventId) throws Exception {
+		var subscribe = get("/api/events");
+		if (lastEventId != null) {
+			subscribe.header("Last-Event-ID", lastEventId);
+		}
+		return mockMvc.perform(subscribe)
+				.andExpect(status().isOk())
+				.andExpect(request().asyncStarted())
+				.andReturn();
+	}
+
+	private void publish(SyncEntityType collection) {
+		changeStream.onCollectionChanged(new CollectionChangedEvent(userId, collection));
+	}
+
+	private static String firstEventId(MvcResult stream) {
+		return await().atMost(Duration.ofSeconds(5)).until(() -> {
+			Matcher id = EVENT_ID.matcher(body(stream));
+			return id.find() ? id.group(1) : null;
+		}, Objects::nonNull);
+	}
+
+	private static String body(MvcResult result) throws Exception {
+		return result.getResponse().getContentAsString();
+	}
+}
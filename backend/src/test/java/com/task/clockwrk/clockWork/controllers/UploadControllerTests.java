@@ -0,0 +1,173 @@
+package com.task.clockwrk.clockWork.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.task.clockwrk.clockWork.repository.StoredFileRepository;
+import com.task.clockwrk.clockWork.services.BlobStorage;
+import com.task.clockwrk.clockWork.services.ImageVariants;
+import com.task.clockwrk.clockWork.services.LocalBlobStorage;
+import com.task.clockwrk.clockWork.services.UploadCache;
+import com.task.clockwrk.clockWork.services.UploadStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UploadControllerTests {
+
+	private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+	private static final String PHOTO = "2c26b46b68ffc68ff99b453c1d30413413422d706483bfa0f98a5e886266e7ae";
+	private static final String STORED = "/uploads/" + HASH + ".png";
+
+	@TempDir
+	Path root;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private ImageVariants variants;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		Files.writeString(root.resolve(HASH + ".png"), "0123456789");
+		UploadCache cache = new UploadCache(meterRegistry, DataSize.ofKilobytes(64), DataSize.ofKilobytes(1));
+		UploadStore store = new UploadStore(mock(StoredFileRepository.class), mock(TransactionTemplate.class),
+				meterRegistry, cache, new LocalBlobStorage(root.toString()), root.toString(), Duration.ofHours(24),
+				DataSize.ofMegabytes(1));
+		variants = new ImageVariants(store, meterRegistry, List.of(32, 64), 1_000_000, 1, 4, Duration.ofSeconds(10),
+				Duration.ofMinutes(5));
+		mockMvc = MockMvcBuilders.standaloneSetup(new UploadController(store, cache, variants, meterRegistry)).build();
+	}
+
+	@Test
+	void storedFilesAreImmutableAndTaggedWithTheirHash() throws Exception {
+		mockMvc.perform(get(STORED))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"" + HASH + "\""))
+				.andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"))
+				.andExpect(header().string("Content-Type", "image/png"))
+				.andExpect(content().string("0123456789"));
+
+		mockMvc.perform(get(STORED).header("If-None-Match", "\"" + HASH + "\""))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void servesSingleByteRanges() throws Exception {
+		mockMvc.perform(get(STORED).header("Range", "bytes=2-4"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string("Content-Range", "bytes 2-4/10"))
+				.andExpect(content().string("234"));
+
+		mockMvc.perform(get(STORED).header("Range", "bytes=-3"))
+				.andExpect(status().isPartialContent())
+				.andExpect(content().string("789"));
+
+		mockMvc.perform(get(STORED).header("Range", "bytes=20-"))
+				.andExpect(status().isRequestedRangeNotSatisfiable())
+				.andExpect(header().string("Content-Range", "bytes */10"));
+
+		// A stale If-Range gets the whole file
+		mockMvc.perform(get(STORED).header("Range", "bytes=2-4").header("If-Range", "\"other\""))
+				.andExpect(status().isOk())
+				.andExpect(content().string("0123456789"));
+	}
+
+	@Test
+	void imagesAreServedAsSquareThumbnails() throws Exception {
+		BufferedImage photo = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+		ImageIO.write(photo, "png", root.resolve(PHOTO + ".png").toFile());
+
+		byte[] thumbnail = mockMvc.perform(get("/uploads/32/" + PHOTO + ".png"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"" + PHOTO + "-32\""))
+				.andExpect(header().string("Content-Type", "image/png"))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(thumbnail));
+		assertThat(decoded.getWidth()).isEqualTo(32);
+		assertThat(decoded.getHeight()).isEqualTo(32);
+		assertThat(root.resolve(".variants/32/" + PHOTO + ".png")).exists();
+
+		// Only the configured sizes exist
+		mockMvc.perform(get("/uploads/48/" + PHOTO + ".png")).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void imagesThatFailToRenderAreServedAsTheyAreWithoutRetrying() throws Exception {
+		// Named .png but not an image
+		for (int attempt = 0; attempt < 3; attempt++) {
+			mockMvc.perform(get("/uploads/32/" + HASH + ".png"))
+					.andExpect(status().isOk())
+					.andExpect(content().string("0123456789"));
+		}
+
+		assertThat(meterRegistry.timer("clockwrk.uploads.variants.render").count()).isEqualTo(1);
+		Map<?, ?> rendering = (Map<?, ?>) ReflectionTestUtils.getField(variants, "rendering");
+		await().atMost(Duration.ofSeconds(5)).until(rendering::isEmpty);
+	}
+
+	@Test
+	void unknownOrEscapingNamesAreNotFound() throws Exception {
+		mockMvc.perform(get("/uploads/missing.png")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/uploads/.incoming")).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void onlyRasterImagesAreRedirectedToTheStorage() throws Exception {
+		BlobStorage remote = mock(BlobStorage.class);
+		when(remote.presignedUrl(anyString(), any()))
+				.thenAnswer(call -> Optional.of(URI.create("https://bucket.example.com/" + call.getArgument(0))));
+		when(remote.download(anyString(), any())).thenAnswer(call -> {
+			Files.writeString(call.getArgument(1), "<svg xmlns=\"http://www.w3.org/2000/svg\"/>");
+			return true;
+		});
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		UploadCache cache = new UploadCache(meterRegistry, DataSize.ofKilobytes(64), DataSize.ofKilobytes(1));
+		UploadStore store = new UploadStore(mock(StoredFileRepository.class), mock(TransactionTemplate.class),
+				meterRegistry, cache, remote, root.resolve("remote").toString(), Duration.ofHours(24), DataSize.ofMegabytes(1));
+		UploadController controller = new UploadController(store, cache,
+				new ImageVariants(store, meterRegistry, List.of(32), 1_000_000, 1, 4, Duration.ofSeconds(10),
+				Duration.ofMinutes(5)), meterRegistry);
+		ReflectionTestUtils.setField(controller, "redirectDownloads", true);
+		ReflectionTestUtils.setField(controller, "presignedUrlTtl", Duration.ofMinutes(15));
+		MockMvc redirecting = MockMvcBuilders.standaloneSetup(controller).build();
+
+		redirecting.perform(get("/uploads/" + PHOTO + ".png"))
+				.andExpect(status().isFound())
+				.andExpect(header().string("Location", "https://bucket.example.com/" + PHOTO + ".png"));
+		// The bucket would serve it without the sandbox
+		redirecting.perform(get("/uploads/" + PHOTO + ".svg"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Security-Policy", containsString("sandbox")))
+				.andExpect(header().string("X-Content-Type-Options", "nosniff"));
+	}
+}
@@ -0,0 +1,46 @@
+package com.task.clockwrk.clockWork.entity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class UuidV7Tests {
+
+	@Test
+	void idsCarryVersionVariantAndTimestamp() {
+		long before = System.currentTimeMillis();
+		UUID id = UuidV7.generate();
+		long after = System.currentTimeMillis();
+
+		assertThat(id.version()).isEqualTo(7);
+		assertThat(id.variant()).isEqualTo(2);
+		// A counter overflow may push the timestamp a few milliseconds ahead of the clock
+		assertThat(UuidV7.timestamp(id)).isBetween(before, after + 5);
+	}
+
+	@Test
+	void idsSortInCreationOrderEvenWithinOneMillisecond() {
+		List<UUID> ids = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++) {
+			ids.add(UuidV7.generate());
+		}
+
+		// PostgreSQL compares UUIDs as unsigned bytes; the canonical string form sorts the same way
+		for (int i = 1; i < ids.size(); i++) {
+			assertThat(ids.get(i).toString()).isGreaterThan(ids.get(i - 1).toString());
+		}
+	}
+
+	@Test
+	void idsForAGivenInstantKeepThatInstant() {
+		UUID id = UuidV7.at(1_700_000_000_000L, -1L);
+
+		assertThat(UuidV7.timestamp(id)).isEqualTo(1_700_000_000_000L);
+		assertThat(id.version()).isEqualTo(7);
+		assertThat(id.variant()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,153 @@
+package com.task.clockwrk.clockWork.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.task.clockwrk.clockWork.entity.UuidV7;
+import com.task.clockwrk.clockWork.services.HabitCompletionBitmap;
+
+/**
+ * Runs the single-statement habit toggle against a freshly migrated schema: the entry, the
+ * year's completion bitmap and the habit entry collection version all move together. Needs a
+ * PostgreSQL database, e.g. TEST_DATABASE_URL=jdbc:postgresql://localhost:5432/clockwrk_db.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class HabitEntryToggleTests {
+
+	private static final String SCHEMA = "habit_toggle_check";
+	// Last day of a leap year: the highest bit the bitmap has
+	private static final LocalDate NEW_YEARS_EVE = LocalDate.of(2024, 12, 31);
+	private static final LocalDate SPRING = LocalDate.of(2024, 3, 1);
+
+	@Autowired
+	private HabitEntryRepository habitEntries;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final UUID userId = UUID.randomUUID();
+	private final UUID habitId = UUID.randomUUID();
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		String url = System.getenv("TEST_DATABASE_URL");
+		registry.add("spring.datasource.url", () -> url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA);
+		registry.add("spring.datasource.username", HabitEntryToggleTests::username);
+		registry.add("spring.datasource.password", HabitEntryToggleTests::password);
+		registry.add("spring.flyway.schemas", () -> SCHEMA);
+	}
+
+	@BeforeAll
+	@AfterAll
+	static void dropSchema() throws SQLException {
+		try (Connection connection = DriverManager.getConnection(System.getenv("TEST_DATABASE_URL"), username(), password());
+				Statement statement = connection.createStatement()) {
+			statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+		}
+	}
+
+	@BeforeEach
+	void createHabit() {
+		createHabit(userId, habitId);
+	}
+
+	@Test
+	void togglingOnOffAndOnMovesTheEntryBitmapAndVersionTogether() {
+		long version = 0;
+		for (boolean expected : List.of(true, false, true)) {
+			assertThat(toggle(habitId, userId, NEW_YEARS_EVE)).contains(expected);
+
+			assertThat(jdbcTemplate.queryForObject("SELECT completed FROM habit_entries WHERE habit_id = ? AND date = ?",
+					Boolean.class, habitId, NEW_YEARS_EVE)).isEqualTo(expected);
+			assertThat(bitmap(2024).isCompleted(NEW_YEARS_EVE)).isEqualTo(expected);
+			long next = jdbcTemplate.queryForObject(
+					"SELECT version FROM collection_versions WHERE user_id = ? AND collection = 'HABIT_ENTRY'", Long.class, userId);
+			assertThat(next).isGreaterThan(version);
+			version = next;
+		}
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM habit_entries WHERE habit_id = ?", Integer.class, habitId))
+				.isEqualTo(1);
+	}
+
+	@Test
+	void bitmapMatchesTheOneBuiltInJava() {
+		toggle(habitId, userId, SPRING);
+		toggle(habitId, userId, NEW_YEARS_EVE);
+
+		HabitCompletionBitmap expected = HabitCompletionBitmap.empty(2024);
+		expected.setCompleted(SPRING, true);
+		expected.setCompleted(NEW_YEARS_EVE, true);
+		assertThat(rawBitmap(2024)).isEqualTo(expected.toBytes());
+
+		// Clearing one day leaves the other set
+		toggle(habitId, userId, SPRING);
+		expected.setCompleted(SPRING, false);
+		assertThat(rawBitmap(2024)).isEqualTo(expected.toBytes());
+	}
+
+	@Test
+	void habitOfAnotherUserIsLeftAlone() {
+		UUID otherUserId = UUID.randomUUID();
+		UUID otherHabitId = UUID.randomUUID();
+		createHabit(otherUserId, otherHabitId);
+
+		// Empty is what the service turns into a 404
+		assertThat(toggle(otherHabitId, userId, SPRING)).isEmpty();
+
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM habit_entries WHERE habit_id = ?", Integer.class,
+				otherHabitId)).isZero();
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM habit_completion_years WHERE habit_id = ?",
+				Integer.class, otherHabitId)).isZero();
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM collection_versions WHERE user_id = ?",
+				Integer.class, userId)).isZero();
+	}
+
+	private Optional<Boolean> toggle(UUID habit, UUID user, LocalDate date) {
+		return habitEntries.toggle(UuidV7.generate(), habit, user, date, date.getYear(), date.getDayOfYear() - 1);
+	}
+
+	private HabitCompletionBitmap bitmap(int year) {
+		return HabitCompletionBitmap.fromBytes(year, rawBitmap(year));
+	}
+
+	private byte[] rawBitmap(int year) {
+		return jdbcTemplate.queryForObject("SELECT bits FROM habit_completion_years WHERE habit_id = ? AND year = ?",
+				byte[].class, habitId, year);
+	}
+
+	private void createHabit(UUID user, UUID habit) {
+		jdbcTemplate.update("INSERT INTO users (id, email, password_hash) VALUES (?, ?, 'x')", user, user + "@example.com");
+		jdbcTemplate.update("INSERT INTO habits (id, user_id, name, target_count, archived) VALUES (?, ?, 'Read', 1, false)",
+				habit, user);
+	}
+
+	private static String username() {
+		return System.getenv().getOrDefault("TEST_DATABASE_USERNAME", "postgres");
+	}
+
+	private static String password() {
+		return System.getenv().getOrDefault("TEST_DATABASE_PASSWORD", "");
+	}
+}
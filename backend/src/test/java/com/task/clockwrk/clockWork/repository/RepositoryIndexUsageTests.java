@@ -0,0 +1,356 @@
+package com.task.clockwrk.clockWork.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.task.clockwrk.clockWork.dtos.TaskCursor;
+import com.task.clockwrk.clockWork.dtos.TaskSort;
+import com.task.clockwrk.clockWork.entity.Task;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Calls each per-user repository query against a freshly migrated schema filled with a thousand
+ * users' worth of data, records the SQL Hibernate sends, and checks its plan uses the index meant
+ * for it. Plans are generic (EXPLAIN (GENERIC_PLAN), PostgreSQL 16+), i.e. good for any parameter
+ * values, and sequential scans stay enabled. Needs a PostgreSQL database, e.g.
+ * TEST_DATABASE_URL=jdbc:postgresql://localhost:5432/clockwrk_db.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class RepositoryIndexUsageTests {
+
+	private static final String SCHEMA = "index_usage_check";
+	private static final Pattern PARAMETER = Pattern.compile("\\?");
+	// Any of the (user_id, ...) indexes serves a plain lookup by owner equally well
+	private static final String HABITS_BY_USER = "idx_habits_user_\\w+";
+	private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+	// Users and their rows; ids are derived from the user number so the queries can name them
+	private static final String[] DATA = {
+			"""
+			INSERT INTO users (id, email, password_hash, created_at)
+			SELECT md5('user' || u)::uuid, 'user' || u || '@example.com', 'x', now() - u * interval '1 hour'
+			FROM generate_series(1, 1000) u
+			""",
+			"""
+			INSERT INTO tasks (id, user_id, title, completed, due_date, start_time, all_day, priority, list_name, created_at)
+			SELECT md5('task' || u || '-' || t)::uuid, md5('user' || u)::uuid, 'Task ' || t, t % 3 = 0,
+			       CASE WHEN t % 4 <> 0 THEN current_date + (t % 60 - 30) END,
+			       CASE WHEN t % 3 = 0 THEN now() + (t % 60 - 30) * interval '1 day' END,
+			       t % 3 <> 0, t % 4, 'Inbox', now() - t * interval '1 hour'
+			FROM generate_series(1, 1000) u, generate_series(1, 50) t
+			""",
+			"""
+			INSERT INTO habits (id, user_id, name, target_count, archived, created_at)
+			SELECT md5('habit' || u || '-' || h)::uuid, md5('user' || u)::uuid, 'Habit ' || h, 1, h = 3, now()
+			FROM generate_series(1, 1000) u, generate_series(1, 3) h
+			""",
+			"""
+			INSERT INTO habit_entries (id, habit_id, date, completed, count, created_at)
+			SELECT gen_random_uuid(), h.id, current_date - d, true, 1, now()
+			FROM habits h, generate_series(0, 59) d
+			""",
+			"""
+			INSERT INTO habit_completion_years (habit_id, year, bits)
+			SELECT h.id, y, decode(repeat('00', 46), 'hex')
+			FROM habits h, generate_series(extract(year FROM current_date)::int - 1, extract(year FROM current_date)::int) y
+			""",
+			"""
+			INSERT INTO habit_stats (habit_id, current_streak, longest_streak, total_completions,
+			                         completions_this_week, completions_this_month, as_of)
+			SELECT id, 1, 1, 1, 1, 1, CASE WHEN random() < 0.01 THEN current_date - 1 ELSE current_date END
+			FROM habits
+			""",
+			"""
+			INSERT INTO custom_lists (id, user_id, name)
+			SELECT md5('list' || u || '-' || l)::uuid, md5('user' || u)::uuid, 'List ' || l
+			FROM generate_series(1, 1000) u, generate_series(1, 5) l
+			""",
+			"""
+			INSERT INTO sync_tombstones (id, user_id, entity_type, entity_id, deleted_at)
+			SELECT gen_random_uuid(), md5('user' || u)::uuid, 'TASK', gen_random_uuid(), now()
+			FROM generate_series(1, 1000) u, generate_series(1, 20) d
+			""",
+			"""
+			INSERT INTO collection_versions (user_id, collection, version)
+			SELECT md5('user' || u)::uuid, c, 1
+			FROM generate_series(1, 1000) u, unnest(ARRAY['TASK', 'HABIT', 'HABIT_ENTRY']) c
+			""",
+			"""
+			INSERT INTO refresh_tokens (id, user_id, token, expires_at, revoked)
+			SELECT gen_random_uuid(), md5('user' || u)::uuid, md5('token' || u || '-' || r), now() + interval '7 days', r < 3
+			FROM generate_series(1, 1000) u, generate_series(1, 3) r
+			""",
+			"""
+			INSERT INTO outbound_emails (id, recipient, subject, body, status, attempts, next_attempt_at, created_at, sent_at)
+			SELECT gen_random_uuid(), 'user' || n || '@example.com', 'Code', 'Body', CASE WHEN n % 1000 = 0 THEN 'PENDING' ELSE 'SENT' END,
+			       1, now() - n * interval '1 minute', now(), now()
+			FROM generate_series(1, 20000) n
+			""",
+			"""
+			INSERT INTO stored_files (hash, file_name, content_type, size_bytes, ref_count, created_at, released_at)
+			SELECT md5('file' || n) || md5('file' || n), md5('file' || n) || '.png', 'image/png', 1024,
+			       CASE WHEN n % 500 = 0 THEN 0 ELSE 1 END, now(), CASE WHEN n % 500 = 0 THEN now() - interval '2 days' END
+			FROM generate_series(1, 20000) n
+			""",
+			"ANALYZE"
+	};
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private UserRepository users;
+
+	@Autowired
+	private TaskRepository tasks;
+
+	@Autowired
+	private HabitRepository habits;
+
+	@Autowired
+	private HabitEntryRepository habitEntries;
+
+	@Autowired
+	private HabitCompletionYearRepository completionYears;
+
+	@Autowired
+	private HabitStatsSnapshotRepository habitStats;
+
+	@Autowired
+	private CustomListRepository lists;
+
+	@Autowired
+	private SyncTombstoneRepository tombstones;
+
+	@Autowired
+	private CollectionVersionRepository collectionVersions;
+
+	@Autowired
+	private RefreshTokenRepository refreshTokens;
+
+	@Autowired
+	private StoredFileRepository storedFiles;
+
+	@Autowired
+	private OutboundEmailRepository outboundEmails;
+
+	// Its own connection in simple query mode, which sends $n parameters to the server unbound
+	private JdbcTemplate explainer;
+	private UUID userId;
+	private UUID taskId;
+	private UUID habitId;
+	private UUID listId;
+
+	@TestConfiguration
+	static class RecordStatements {
+
+		@Bean
+		HibernatePropertiesCustomizer statementRecorder() {
+			return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+				statements.add(sql);
+				return sql;
+			});
+		}
+
+		// Starts from an empty schema even if an earlier run was killed before cleaning up
+		@Bean
+		FlywayMigrationStrategy cleanMigrate() {
+			return flyway -> {
+				flyway.clean();
+				flyway.migrate();
+			};
+		}
+	}
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> url(""));
+		registry.add("spring.datasource.username", RepositoryIndexUsageTests::username);
+		registry.add("spring.datasource.password", RepositoryIndexUsageTests::password);
+		registry.add("spring.flyway.schemas", () -> SCHEMA);
+		registry.add("spring.flyway.clean-disabled", () -> "false");
+	}
+
+	@BeforeAll
+	void load() {
+		for (String sql : DATA) {
+			jdbcTemplate.execute(sql);
+		}
+		userId = jdbcTemplate.queryForObject("SELECT md5('user1')::uuid", UUID.class);
+		taskId = jdbcTemplate.queryForObject("SELECT md5('task1-1')::uuid", UUID.class);
+		habitId = jdbcTemplate.queryForObject("SELECT md5('habit1-1')::uuid", UUID.class);
+		listId = jdbcTemplate.queryForObject("SELECT md5('list1-1')::uuid", UUID.class);
+		explainer = new JdbcTemplate(new DriverManagerDataSource(url("&preferQueryMode=simple"), username(), password()));
+	}
+
+	@AfterAll
+	void dropSchema() {
+		jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+	}
+
+	Stream<Arguments> queries() {
+		LocalDate today = LocalDate.now();
+		Instant now = Instant.now();
+		return Stream.of(
+				query("users.findByEmail", () -> users.findByEmail("user1@example.com"),
+						"users_email_key"),
+				query("tasks.findByIdAndUserId", () -> tasks.findByIdAndUserId(taskId, userId),
+						"tasks_pkey"),
+				query("tasks.findByUserIdAndIdIn", () -> tasks.findByUserIdAndIdIn(userId, List.of(taskId, UUID.randomUUID())),
+						"tasks_pkey|idx_tasks_user_\\w+"),
+				query("tasks.findInCalendarRange", () -> tasks.findInCalendarRange(userId, today, today.plusDays(30),
+								now, now.plus(31, ChronoUnit.DAYS)),
+						"idx_tasks_user_due_date", "idx_tasks_user_start_time"),
+				query("tasks.page(CREATED)", () -> page(TaskSort.CREATED, null),
+						"idx_tasks_user_created_at"),
+				query("tasks.page(CREATED, after)", () -> page(TaskSort.CREATED,
+								new TaskCursor(TaskSort.CREATED, null, null, now.minus(10, ChronoUnit.HOURS), taskId)),
+						"idx_tasks_user_created_at"),
+				query("tasks.page(PRIORITY)", () -> page(TaskSort.PRIORITY, null),
+						"idx_tasks_user_priority"),
+				query("tasks.page(PRIORITY, after)", () -> page(TaskSort.PRIORITY,
+								new TaskCursor(TaskSort.PRIORITY, 2, null, null, taskId)),
+						"idx_tasks_user_priority"),
+				query("tasks.page(DUE)", () -> page(TaskSort.DUE, null),
+						"idx_tasks_user_due_date"),
+				query("tasks.page(DUE, after)", () -> page(TaskSort.DUE,
+								new TaskCursor(TaskSort.DUE, null, today, null, taskId)),
+						"idx_tasks_user_due_date"),
+				query("tasks.changesSince", () -> tasks.findByUserIdAndChangeVersionGreaterThanEqual(userId, Long.MAX_VALUE),
+						"idx_tasks_user_change_version"),
+				query("habits.findByIdAndUserId", () -> habits.findByIdAndUserId(habitId, userId),
+						"habits_pkey"),
+				query("habits.findByUserIdAndArchivedFalse", () -> habits.findByUserIdAndArchivedFalse(userId),
+						"idx_habits_user_archived"),
+				query("habits.changesSince", () -> habits.findByUserIdAndChangeVersionGreaterThanEqual(userId, Long.MAX_VALUE),
+						"idx_habits_user_change_version"),
+				query("habitEntries.findByHabitIdAndDate", () -> habitEntries.findByHabitIdAndDate(habitId, today),
+						"habit_entries_habit_id_date_key"),
+				query("habitEntries.findByHabitIdAndDateBetween", () -> habitEntries.findByHabitIdAndDateBetween(habitId,
+								today.minusDays(7), today),
+						"habit_entries_habit_id_date_key"),
+				query("habitEntries.findByHabitUserIdAndDateBetween", () -> habitEntries.findByHabitUserIdAndDateBetween(userId,
+								today.minusDays(7), today),
+						HABITS_BY_USER, "habit_entries_habit_id_date_key"),
+				query("habitEntries.toggle", () -> habitEntries.toggle(UUID.randomUUID(), habitId, userId, today,
+								today.getYear(), today.getDayOfYear() - 1),
+						"habits_pkey"),
+				query("habitEntries.changesSince", () -> habitEntries.findByHabitUserIdAndChangeVersionGreaterThanEqual(userId,
+								Long.MAX_VALUE),
+						HABITS_BY_USER, "idx_habit_entries_habit_change_version"),
+				query("habitCompletionYears.findByUserIdAndYearBetween", () -> completionYears.findByUserIdAndYearBetween(userId,
+								today.getYear() - 1, today.getYear()),
+						HABITS_BY_USER, "habit_completion_years_pkey"),
+				query("habitStats.findTop500ByAsOfBefore", () -> habitStats.findTop500ByAsOfBefore(today),
+						"idx_habit_stats_as_of"),
+				query("customLists.findAllByUserId", () -> lists.findAllByUserId(userId),
+						"idx_custom_lists_user_change_version"),
+				query("customLists.deleteByIdAndUserId", () -> lists.deleteByIdAndUserId(listId, userId),
+						"custom_lists_pkey"),
+				query("syncTombstones.changesSince", () -> tombstones.findByUserIdAndChangeVersionGreaterThanEqual(userId,
+								Long.MAX_VALUE),
+						"idx_sync_tombstones_user_version"),
+				query("collectionVersions.findByUserId", () -> collectionVersions.findByUserId(userId),
+						"collection_versions_pkey"),
+				query("refreshTokens.findByToken", () -> refreshTokens.findByToken("token"),
+						"refresh_tokens_token_key"),
+				query("refreshTokens.revokeByUserId", () -> refreshTokens.revokeByUserId(userId),
+						"idx_refresh_tokens_user"),
+				query("storedFiles.lockUnreferenced", () -> storedFiles.lockUnreferenced(now.minus(1, ChronoUnit.DAYS), 100),
+						"idx_stored_files_unreferenced"),
+				query("outboundEmails.lockDue", () -> outboundEmails.lockDue(now, 20),
+						"idx_outbound_emails_status_next_attempt"));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("queries")
+	void queryIsServedByItsIndex(String name, Runnable call, List<String> indexes) {
+		statements.clear();
+		call.run();
+		entityManager.flush();
+
+		assertThat(statements).as(name).isNotEmpty();
+		String plans = statements.stream().map(this::explain).collect(Collectors.joining("\n"));
+		assertThat(plans).as(name).doesNotContain("Seq Scan");
+		for (String index : indexes) {
+			assertThat(plans).as(name).containsPattern("(using|on) (" + index + ")\\b");
+		}
+	}
+
+	private static Arguments query(String name, Runnable call, String... indexes) {
+		return Arguments.of(name, call, List.of(indexes));
+	}
+
+	// The same query the task listing runs for its first and following pages
+	private void page(TaskSort sort, TaskCursor cursor) {
+		Specification<Task> filter = TaskSpecifications.ownedBy(userId);
+		if (cursor != null) {
+			filter = filter.and(TaskSpecifications.after(cursor));
+		}
+		tasks.findBy(filter, query -> query.sortBy(sort.toSort()).limit(51).all());
+	}
+
+	private String explain(String sql) {
+		// JDBC placeholders become numbered parameters, which GENERIC_PLAN leaves unbound
+		Matcher parameters = PARAMETER.matcher(sql);
+		StringBuilder numbered = new StringBuilder();
+		int index = 0;
+		while (parameters.find()) {
+			parameters.appendReplacement(numbered, "\\$" + ++index);
+		}
+		parameters.appendTail(numbered);
+		return String.join("\n", explainer.queryForList("EXPLAIN (GENERIC_PLAN) " + numbered, String.class));
+	}
+
+	private static String url(String options) {
+		String url = System.getenv("TEST_DATABASE_URL");
+		return url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA + options;
+	}
+
+	private static String username() {
+		return System.getenv().getOrDefault("TEST_DATABASE_USERNAME", "postgres");
+	}
+
+	private static String password() {
+		return System.getenv().getOrDefault("TEST_DATABASE_PASSWORD", "");
+	}
+}
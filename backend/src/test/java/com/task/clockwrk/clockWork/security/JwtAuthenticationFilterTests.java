@@ -0,0 +1,122 @@
+package com.task.clockwrk.clockWork.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.task.clockwrk.clockWork.entity.User;
+import com.task.clockwrk.clockWork.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtAuthenticationFilterTests {
+
+	private final JwtService jwtService = new JwtService();
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final StreamTickets streamTickets = new StreamTickets(Duration.ofSeconds(30));
+	private JwtAuthenticationFilter filter;
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(jwtService, "secretKey", Base64.getEncoder().encodeToString(new byte[32]));
+		ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 60_000L);
+		ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", 600_000L);
+		ReflectionTestUtils.setField(jwtService, "verificationCacheSize", 100L);
+		jwtService.init();
+		when(userRepository.existsById(any())).thenReturn(true);
+		filter = new JwtAuthenticationFilter(jwtService, new UserRevocationChecker(userRepository, 30_000),
+				streamTickets, new SimpleMeterRegistry());
+
+		user = new User();
+		user.setId(UUID.randomUUID());
+		user.setEmail("someone@example.com");
+	}
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void accessTokenAuthenticates() throws Exception {
+		filter(jwtService.generateToken(user));
+
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		assertThat(authentication).isNotNull();
+		assertThat(((AuthenticatedUser) authentication.getPrincipal()).id()).isEqualTo(user.getId());
+	}
+
+	@Test
+	void refreshTokenIsNotABearerCredential() throws Exception {
+		MockHttpServletResponse response = filter(jwtService.generateRefreshToken(user));
+
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+		assertThat(response.getHeader("X-Token-Expired")).isNull();
+	}
+
+	@Test
+	void refreshTokensIssuedTogetherAreDistinct() {
+		// Stored under a unique constraint, and issued within the same second by concurrent logins
+		assertThat(jwtService.generateRefreshToken(user)).isNotEqualTo(jwtService.generateRefreshToken(user));
+	}
+
+	@Test
+	void tokenWithoutATypeIsSentToRefresh() throws Exception {
+		String legacy = jwtService.generateToken(Map.of(JwtService.USER_ID_CLAIM, user.getId().toString()),
+				user.getEmail(), 60_000);
+
+		MockHttpServletResponse response = filter(legacy);
+
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+		assertThat(response.getHeader("X-Token-Expired")).isEqualTo("true");
+	}
+
+	@Test
+	void eventStreamsOpenWithASingleUseTicketOnly() throws Exception {
+		String ticket = streamTickets.issue(new AuthenticatedUser(user.getId(), user.getEmail(), List.of())).getTicket();
+
+		openStream("access_token", jwtService.generateToken(user));
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+
+		openStream("ticket", ticket);
+		assertThat(((AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).id())
+				.isEqualTo(user.getId());
+
+		SecurityContextHolder.clearContext();
+		openStream("ticket", ticket);
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+	}
+
+	private void openStream(String parameter, String value) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events");
+		request.setServletPath("/api/events");
+		request.setParameter(parameter, value);
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+	}
+
+	private MockHttpServletResponse filter(String token) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+		request.addHeader("Authorization", "Bearer " + token);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+}
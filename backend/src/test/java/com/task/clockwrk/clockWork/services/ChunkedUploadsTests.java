@@ -0,0 +1,156 @@
+package com.task.clockwrk.clockWork.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.task.clockwrk.clockWork.dtos.UploadSessionResponse;
+import com.task.clockwrk.clockWork.exception.ApiException;
+import com.task.clockwrk.clockWork.repository.StoredFileRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ChunkedUploadsTests {
+
+	private static final int CHUNK = 1024;
+
+	@TempDir
+	Path root;
+
+	private final UUID userId = UUID.randomUUID();
+	private ChunkedUploads uploads;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		StoredFileRepository repository = mock(StoredFileRepository.class);
+		when(repository.registerUpload(anyString(), anyString(), anyString(), anyLong()))
+				.thenAnswer(call -> call.getArgument(1));
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		UploadStore store = new UploadStore(repository, mock(TransactionTemplate.class), meterRegistry,
+				mock(UploadCache.class), new LocalBlobStorage(root.toString()), root.toString(), Duration.ofHours(24),
+				DataSize.ofMegabytes(1));
+		uploads = new ChunkedUploads(store, meterRegistry, DataSize.ofKilobytes(64), DataSize.ofBytes(CHUNK), 2,
+				Duration.ofHours(1));
+	}
+
+	@Test
+	void chunksSentInParallelAndOutOfOrderAreAssembledInPlace() throws Exception {
+		byte[] content = new byte[CHUNK * 3 + 100];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) (i * 31);
+		}
+		UploadSessionResponse session = uploads.open(userId, "image/png", ".png", content.length);
+		assertThat(session.getChunkCount()).isEqualTo(4);
+
+		IntStream.of(3, 1, 0, 2).parallel().forEach(index -> {
+			byte[] chunk = Arrays.copyOfRange(content, index * CHUNK, Math.min(content.length, (index + 1) * CHUNK));
+			try {
+				uploads.writeChunk(userId, session.getId(), index, new ByteArrayInputStream(chunk));
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		UploadStore.Stored stored = uploads.complete(userId, session.getId());
+
+		// Named by the hash of the chunk hashes, in order, apart from plain content hashes
+		MessageDigest tree = MessageDigest.getInstance("SHA-256");
+		for (int offset = 0; offset < content.length; offset += CHUNK) {
+			tree.update(MessageDigest.getInstance("SHA-256")
+					.digest(Arrays.copyOfRange(content, offset, Math.min(content.length, offset + CHUNK))));
+		}
+		assertThat(stored.fileName()).isEqualTo("c" + HexFormat.of().formatHex(tree.digest()) + ".png");
+		assertThat(Files.readAllBytes(root.resolve(stored.fileName()))).isEqualTo(content);
+		assertThatThrownBy(() -> uploads.status(userId, session.getId())).isInstanceOf(ApiException.class);
+	}
+
+	@Test
+	void resumedSessionsReportWhatIsMissing() throws Exception {
+		UploadSessionResponse session = uploads.open(userId, "image/png", ".png", CHUNK * 2);
+		uploads.writeChunk(userId, session.getId(), 1, new ByteArrayInputStream(new byte[CHUNK]));
+
+		assertThat(uploads.status(userId, session.getId()).getMissingChunks()).containsExactly(0);
+		assertThatThrownBy(() -> uploads.complete(userId, session.getId()))
+				.isInstanceOf(ApiException.class)
+				.hasMessageContaining("1 chunks");
+		assertThatThrownBy(() -> uploads.writeChunk(userId, session.getId(), 0, new ByteArrayInputStream(new byte[CHUNK + 1])))
+				.isInstanceOf(ApiException.class)
+				.hasMessageContaining("must be " + CHUNK + " bytes");
+		// Sessions are private to the user who opened them
+		assertThatThrownBy(() -> uploads.status(UUID.randomUUID(), session.getId()))
+				.isInstanceOf(ApiException.class)
+				.hasMessageContaining("not found");
+	}
+
+	@Test
+	void aChunkIsWrittenByOneRequestAtATime() throws Exception {
+		UploadSessionResponse session = uploads.open(userId, "image/png", ".png", CHUNK);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		InputStream slow = new InputStream() {
+			private int sent;
+
+			@Override
+			public int read() {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return sent++ < CHUNK ? 7 : -1;
+			}
+		};
+		CompletableFuture<UploadSessionResponse> first = CompletableFuture.supplyAsync(() -> {
+			try {
+				return uploads.writeChunk(userId, session.getId(), 0, slow);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		started.await();
+
+		assertThatThrownBy(() -> uploads.writeChunk(userId, session.getId(), 0, new ByteArrayInputStream(new byte[CHUNK])))
+				.isInstanceOf(ApiException.class)
+				.hasMessageContaining("already being uploaded");
+
+		release.countDown();
+		assertThat(first.get().getMissingChunks()).isEmpty();
+		// Once the first write is done the chunk can be sent again
+		assertThat(uploads.writeChunk(userId, session.getId(), 0, new ByteArrayInputStream(new byte[CHUNK]))
+				.getMissingChunks()).isEmpty();
+	}
+
+	@Test
+	void abortedSessionsDeleteTheirFile() throws Exception {
+		UploadSessionResponse session = uploads.open(userId, "image/png", ".png", CHUNK);
+		uploads.writeChunk(userId, session.getId(), 0, new ByteArrayInputStream(new byte[CHUNK]));
+
+		uploads.abort(userId, session.getId());
+
+		try (var incoming = Files.list(root.resolve(".incoming"))) {
+			assertThat(incoming).isEmpty();
+		}
+	}
+}
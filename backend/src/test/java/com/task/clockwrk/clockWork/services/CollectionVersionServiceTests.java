@@ -0,0 +1,44 @@
+package com.task.clockwrk.clockWork.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.task.clockwrk.clockWork.entity.CollectionVersion;
+import com.task.clockwrk.clockWork.entity.SyncEntityType;
+import com.task.clockwrk.clockWork.repository.CollectionVersionRepository;
+
+class CollectionVersionServiceTests {
+
+	private final CollectionVersionRepository repository = mock(CollectionVersionRepository.class);
+	private final CollectionVersionService service = new CollectionVersionService(repository,
+			mock(ApplicationEventPublisher.class));
+
+	@Test
+	void usersWithUntouchedCollectionsGetDifferentTags() {
+		UUID first = UUID.randomUUID();
+		UUID second = UUID.randomUUID();
+
+		assertThat(service.versionTag(first, SyncEntityType.TASK))
+				.isNotEqualTo(service.versionTag(second, SyncEntityType.TASK));
+	}
+
+	@Test
+	void tagChangesWithAnyOfItsCollections() {
+		UUID userId = UUID.randomUUID();
+		when(repository.findByUserId(userId)).thenReturn(List.of(new CollectionVersion(userId, SyncEntityType.HABIT, 40)));
+		String before = service.versionTag(userId, SyncEntityType.HABIT, SyncEntityType.HABIT_ENTRY);
+
+		when(repository.findByUserId(userId)).thenReturn(List.of(new CollectionVersion(userId, SyncEntityType.HABIT, 40),
+				new CollectionVersion(userId, SyncEntityType.HABIT_ENTRY, 41)));
+
+		assertThat(service.versionTag(userId, SyncEntityType.HABIT, SyncEntityType.HABIT_ENTRY)).isNotEqualTo(before);
+		assertThat(service.versionTag(userId, SyncEntityType.TASK)).isNotEqualTo(before);
+	}
+}
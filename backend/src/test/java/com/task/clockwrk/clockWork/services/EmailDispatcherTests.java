@@ -0,0 +1,122 @@
+package com.task.clockwrk.clockWork.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.task.clockwrk.clockWork.entity.OutboundEmail;
+import com.task.clockwrk.clockWork.entity.OutboundEmailStatus;
+import com.task.clockwrk.clockWork.repository.OutboundEmailRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EmailDispatcherTests {
+
+	private final OutboundEmailRepository repository = mock(OutboundEmailRepository.class);
+	private final FakeMailSender mailSender = new FakeMailSender();
+	private EmailDispatcher dispatcher;
+
+	@BeforeEach
+	void setUp() {
+		dispatcher = new EmailDispatcher(repository, mailSender, new SimpleMeterRegistry(),
+				mock(PlatformTransactionManager.class),
+				"noreply@clockwrk.test", 10, 3, Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofHours(1));
+	}
+
+	@Test
+	void sendsBatchAndReschedulesRejectedRecipients() {
+		OutboundEmail ok = mail("ok@clockwrk.test", 0);
+		OutboundEmail rejected = mail("bounce@clockwrk.test", 0);
+		when(repository.lockDue(any(), anyInt())).thenReturn(List.of(ok, rejected), List.of());
+		mailSender.rejected.add("bounce@clockwrk.test");
+
+		Instant before = Instant.now();
+		dispatcher.dispatch();
+
+		assertThat(mailSender.batches).hasSize(1);
+		assertThat(mailSender.batches.get(0)).hasSize(2);
+		assertThat(ok.getStatus()).isEqualTo(OutboundEmailStatus.SENT);
+		assertThat(ok.getSentAt()).isNotNull();
+		assertThat(rejected.getStatus()).isEqualTo(OutboundEmailStatus.PENDING);
+		assertThat(rejected.getAttempts()).isEqualTo(1);
+		assertThat(rejected.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(30));
+		assertThat(rejected.getLastError()).contains("mailbox unavailable");
+	}
+
+	@Test
+	void givesUpAfterMaxAttempts() {
+		OutboundEmail lastTry = mail("bounce@clockwrk.test", 2);
+		when(repository.lockDue(any(), anyInt())).thenReturn(List.of(lastTry), List.of());
+		mailSender.rejected.add("bounce@clockwrk.test");
+
+		dispatcher.dispatch();
+
+		assertThat(lastTry.getStatus()).isEqualTo(OutboundEmailStatus.FAILED);
+		assertThat(lastTry.getAttempts()).isEqualTo(3);
+	}
+
+	@Test
+	void purgesOnlyFinishedMailsOlderThanTheRetention() {
+		ArgumentCaptor<Instant> before = ArgumentCaptor.forClass(Instant.class);
+		when(repository.deleteByStatusCreatedBefore(any(), any())).thenReturn(2);
+
+		Instant now = Instant.now();
+		dispatcher.purge();
+
+		verify(repository).deleteByStatusCreatedBefore(eq(List.of(OutboundEmailStatus.SENT, OutboundEmailStatus.FAILED)),
+				before.capture());
+		assertThat(before.getValue()).isBetween(now.minus(Duration.ofHours(1)), Instant.now().minus(Duration.ofHours(1)));
+	}
+
+	private static OutboundEmail mail(String recipient, int attempts) {
+		return OutboundEmail.builder()
+				.id(UUID.randomUUID())
+				.recipient(recipient)
+				.subject("Your code")
+				.body("123456")
+				.attempts(attempts)
+				.build();
+	}
+
+	// Stands in for the SMTP server: accepts everything except the configured recipients
+	private static class FakeMailSender implements MailSender {
+
+		final List<List<SimpleMailMessage>> batches = new ArrayList<>();
+		final List<String> rejected = new ArrayList<>();
+
+		@Override
+		public void send(SimpleMailMessage... messages) {
+			batches.add(List.of(messages));
+			Map<Object, Exception> failed = new LinkedHashMap<>();
+			for (SimpleMailMessage message : messages) {
+				if (rejected.containsAll(Set.of(message.getTo()))) {
+					failed.put(message, new IllegalStateException("550 mailbox unavailable"));
+				}
+			}
+			if (!failed.isEmpty()) {
+				throw new MailSendException(failed);
+			}
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package com.task.clockwrk.clockWork.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class HabitCompletionBitmapTests {
+
+	private static final int YEAR = 2024; // Leap year, so December 31 is day 366
+
+	@Test
+	void streaksAndCountsSpanWordBoundaries() {
+		HabitCompletionBitmap bitmap = HabitCompletionBitmap.empty(YEAR);
+		LocalDate start = LocalDate.of(YEAR, 2, 20); // Day 51, run covers days 51..140
+		for (int i = 0; i < 90; i++) {
+			bitmap.setCompleted(start.plusDays(i), true);
+		}
+		LocalDate lastDay = start.plusDays(89);
+
+		assertThat(bitmap.runEndingAt(lastDay)).isEqualTo(90);
+		assertThat(bitmap.runEndingAt(lastDay.plusDays(1))).isZero();
+		assertThat(bitmap.longestRun(LocalDate.of(YEAR, 12, 31))).isEqualTo(90);
+		assertThat(bitmap.longestRun(start.plusDays(9))).isEqualTo(10);
+		assertThat(bitmap.countCompleted(LocalDate.of(YEAR, 3, 1), LocalDate.of(YEAR, 3, 31))).isEqualTo(31);
+		assertThat(bitmap.countCompleted(LocalDate.of(YEAR - 1, 6, 1), LocalDate.of(YEAR + 1, 6, 1))).isEqualTo(90);
+	}
+
+	@Test
+	void lastDayOfLeapYearRoundTripsThroughBytes() {
+		HabitCompletionBitmap bitmap = HabitCompletionBitmap.empty(YEAR);
+		bitmap.setCompleted(LocalDate.of(YEAR, 1, 1), true);
+		bitmap.setCompleted(LocalDate.of(YEAR, 12, 30), true);
+		bitmap.setCompleted(LocalDate.of(YEAR, 12, 31), true);
+
+		byte[] bytes = bitmap.toBytes();
+		assertThat(bytes).hasSize(HabitCompletionBitmap.BYTES);
+		assertThat(bytes[0]).isEqualTo((byte) 1); // Day 1 is the low bit of the first byte
+		assertThat(bytes[365 / 8] & (1 << (365 % 8))).isNotZero();
+
+		HabitCompletionBitmap copy = HabitCompletionBitmap.fromBytes(YEAR, bytes);
+		assertThat(copy).isEqualTo(bitmap);
+		assertThat(copy.runEndingAt(LocalDate.of(YEAR, 12, 31))).isEqualTo(2);
+
+		List<LocalDate> days = new ArrayList<>();
+		copy.forEachCompleted(LocalDate.of(YEAR, 1, 1), LocalDate.of(YEAR, 12, 31), days::add);
+		assertThat(days).containsExactly(
+				LocalDate.of(YEAR, 1, 1), LocalDate.of(YEAR, 12, 30), LocalDate.of(YEAR, 12, 31));
+	}
+
+	@Test
+	void clearingADayBreaksTheRun() {
+		HabitCompletionBitmap bitmap = HabitCompletionBitmap.empty(YEAR);
+		for (int day = 1; day <= 10; day++) {
+			bitmap.setCompleted(LocalDate.of(YEAR, 1, day), true);
+		}
+		bitmap.setCompleted(LocalDate.of(YEAR, 1, 4), false);
+
+		assertThat(bitmap.isCompleted(LocalDate.of(YEAR, 1, 4))).isFalse();
+		assertThat(bitmap.runEndingAt(LocalDate.of(YEAR, 1, 10))).isEqualTo(6);
+		assertThat(bitmap.longestRun(LocalDate.of(YEAR, 1, 31))).isEqualTo(6);
+		assertThat(bitmap.countCompleted(LocalDate.of(YEAR, 1, 1), LocalDate.of(YEAR, 1, 10))).isEqualTo(9);
+	}
+}
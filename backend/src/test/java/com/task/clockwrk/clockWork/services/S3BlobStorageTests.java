@@ -0,0 +1,99 @@
+package com.task.clockwrk.clockWork.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+/**
+ * Runs {@link S3BlobStorage} against an S3-compatible server in a scratch bucket. Needs e.g. a
+ * local MinIO: S3_TEST_ENDPOINT=http://localhost:9000 (S3_TEST_ACCESS_KEY and
+ * S3_TEST_SECRET_KEY default to minioadmin).
+ */
+@EnabledIfEnvironmentVariable(named = "S3_TEST_ENDPOINT", matches = ".+")
+class S3BlobStorageTests {
+
+	private static final String BUCKET = "clockwrk-test-" + UUID.randomUUID();
+
+	private static S3Client s3;
+	private static S3Presigner presigner;
+	private static S3BlobStorage storage;
+
+	@TempDir
+	Path dir;
+
+	@BeforeAll
+	static void createBucket() {
+		URI endpoint = URI.create(System.getenv("S3_TEST_ENDPOINT"));
+		var credentials = StaticCredentialsProvider.create(AwsBasicCredentials.create(
+				System.getenv().getOrDefault("S3_TEST_ACCESS_KEY", "minioadmin"),
+				System.getenv().getOrDefault("S3_TEST_SECRET_KEY", "minioadmin")));
+		s3 = S3Client.builder().endpointOverride(endpoint).region(Region.US_EAST_1)
+				.credentialsProvider(credentials).forcePathStyle(true).build();
+		presigner = S3Presigner.builder().endpointOverride(endpoint).region(Region.US_EAST_1)
+				.credentialsProvider(credentials)
+				.serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+				.build();
+		s3.createBucket(request -> request.bucket(BUCKET));
+		storage = new S3BlobStorage(s3, presigner, BUCKET, "uploads/");
+	}
+
+	@AfterAll
+	static void deleteBucket() {
+		s3.listObjectsV2Paginator(request -> request.bucket(BUCKET)).contents()
+				.forEach(object -> s3.deleteObject(request -> request.bucket(BUCKET).key(object.key())));
+		s3.deleteBucket(request -> request.bucket(BUCKET));
+		presigner.close();
+		s3.close();
+	}
+
+	@Test
+	void storesFetchesAndDeletesObjects() throws Exception {
+		Path source = Files.writeString(dir.resolve("source"), "avatar");
+
+		assertThat(storage.exists("a.png")).isFalse();
+		storage.put("a.png", source, "image/png");
+		assertThat(storage.exists("a.png")).isTrue();
+
+		Path copy = dir.resolve("copy");
+		assertThat(storage.download("a.png", copy)).isTrue();
+		assertThat(Files.readString(copy)).isEqualTo("avatar");
+		assertThat(storage.download("missing.png", dir.resolve("missing"))).isFalse();
+
+		storage.delete("a.png");
+		assertThat(storage.exists("a.png")).isFalse();
+	}
+
+	@Test
+	void presignedUrlsServeTheObjectWithoutCredentials() throws Exception {
+		storage.put("b.png", Files.writeString(dir.resolve("source"), "avatar"), "image/png");
+
+		URI url = storage.presignedUrl("b.png", Duration.ofMinutes(5)).orElseThrow();
+		HttpResponse<String> response = HttpClient.newHttpClient()
+				.send(HttpRequest.newBuilder(url).build(), HttpResponse.BodyHandlers.ofString());
+
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.body()).isEqualTo("avatar");
+		assertThat(response.headers().firstValue("Cache-Control")).hasValue("public, max-age=31536000, immutable");
+		assertThat(response.headers().firstValue("Content-Type")).hasValue("image/png");
+	}
+}
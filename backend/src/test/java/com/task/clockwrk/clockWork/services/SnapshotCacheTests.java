@@ -0,0 +1,110 @@
+package com.task.clockwrk.clockWork.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.task.clockwrk.clockWork.entity.SyncEntityType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SnapshotCacheTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final SnapshotCache cache = new SnapshotCache(meterRegistry, DataSize.ofKilobytes(64));
+	private final AtomicInteger loads = new AtomicInteger();
+	private final UUID userId = UUID.randomUUID();
+
+	@Test
+	void servesTheSnapshotWhileTheVersionIsUnchanged() {
+		assertThat(tasks("1")).containsExactly("task");
+		assertThat(tasks("1")).containsExactly("task");
+		assertThat(loads).hasValue(1);
+
+		tasks("2");
+		assertThat(loads).hasValue(2);
+		assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(2);
+	}
+
+	@Test
+	void committedChangesDropOnlyTheAffectedSnapshot() {
+		tasks("1");
+		habits("1");
+
+		cache.onCollectionChanged(new CollectionChangedEvent(userId, SyncEntityType.HABIT_ENTRY));
+		tasks("1");
+		habits("1");
+
+		// The task snapshot survived; the habit snapshot had to be reloaded
+		assertThat(loads).hasValue(3);
+	}
+
+	@Test
+	void loadsDoNotHoldUpInvalidationOrEachOther() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<List<String>> slow = CompletableFuture.supplyAsync(() -> cache.get(userId, SyncEntityType.TASK, "1",
+				() -> {
+					loading.countDown();
+					await().until(() -> release.getCount() == 0);
+					return load();
+				}, SnapshotCache::stringBytes));
+		loading.await();
+		// Waits for the load in flight instead of starting another
+		CompletableFuture<List<String>> same = CompletableFuture.supplyAsync(() -> tasks("1"));
+		await().until(() -> meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count() == 1);
+
+		// Neither waits for the load in flight
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+			habits("1");
+			cache.onCollectionChanged(new CollectionChangedEvent(userId, SyncEntityType.TASK));
+		});
+		release.countDown();
+
+		assertThat(slow.get()).containsExactly("task");
+		assertThat(same.get()).containsExactly("task");
+		assertThat(loads).hasValue(2);
+		// The invalidation that arrived during the load is not undone by it
+		tasks("1");
+		assertThat(loads).hasValue(3);
+	}
+
+	@Test
+	void evictsBeyondTheByteBudget() {
+		for (int i = 0; i < 100; i++) {
+			cache.get(UUID.randomUUID(), SyncEntityType.TASK, "1", () -> List.of("x".repeat(1000)), SnapshotCache::stringBytes);
+		}
+		cache.get(userId, SyncEntityType.TASK, "1", List::<String>of, SnapshotCache::stringBytes);
+
+		// Caffeine evicts in the background
+		await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+			assertThat(meterRegistry.get("clockwrk.cache.snapshots.bytes").gauge().value())
+					.isLessThanOrEqualTo(DataSize.ofKilobytes(64).toBytes());
+			assertThat(meterRegistry.get("cache.evictions").functionCounter().count()).isPositive();
+		});
+	}
+
+	private List<String> tasks(String version) {
+		return cache.get(userId, SyncEntityType.TASK, version, this::load, SnapshotCache::stringBytes);
+	}
+
+	private List<String> habits(String version) {
+		return cache.get(userId, SyncEntityType.HABIT, version, this::load, SnapshotCache::stringBytes);
+	}
+
+	private List<String> load() {
+		loads.incrementAndGet();
+		return List.of("task");
+	}
+}
@@ -0,0 +1,140 @@
+package com.task.clockwrk.clockWork.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.task.clockwrk.clockWork.dtos.SyncResponse;
+import com.task.clockwrk.clockWork.entity.Task;
+import com.task.clockwrk.clockWork.security.CurrentUser;
+
+/**
+ * Runs syncs between writers that commit out of order, against a freshly migrated schema. Needs a
+ * PostgreSQL database, e.g. TEST_DATABASE_URL=jdbc:postgresql://localhost:5432/clockwrk_db.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SyncService.class)
+// Writers have to commit for a sync to see them
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class SyncServiceTests {
+
+	private static final String SCHEMA = "sync_check";
+
+	@MockitoBean
+	private CurrentUser currentUser;
+
+	@Autowired
+	private SyncService syncService;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private final UUID userId = UUID.randomUUID();
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		String url = System.getenv("TEST_DATABASE_URL");
+		registry.add("spring.datasource.url", () -> url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA);
+		registry.add("spring.datasource.username", SyncServiceTests::username);
+		registry.add("spring.datasource.password", SyncServiceTests::password);
+		registry.add("spring.flyway.schemas", () -> SCHEMA);
+	}
+
+	@BeforeAll
+	@AfterAll
+	static void dropSchema() throws SQLException {
+		try (Connection connection = DriverManager.getConnection(System.getenv("TEST_DATABASE_URL"), username(), password());
+				Statement statement = connection.createStatement()) {
+			statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+		}
+	}
+
+	@BeforeEach
+	void createUser() throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement insert = connection.prepareStatement(
+						"INSERT INTO users (id, email, password_hash) VALUES (?, ?, 'x')")) {
+			insert.setObject(1, userId);
+			insert.setString(2, userId + "@example.com");
+			insert.executeUpdate();
+		}
+		when(currentUser.getId()).thenReturn(userId);
+	}
+
+	@Test
+	void rowsCommittedAfterALaterWriterAreReturnedByTheNextSync() throws SQLException {
+		try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+			first.setAutoCommit(false);
+			second.setAutoCommit(false);
+
+			// The first writer starts before the second one but commits after the sync
+			insertTask(first, "slow");
+			insertTask(second, "fast");
+			second.commit();
+
+			SyncResponse before = syncService.getChangesSince(0);
+			assertThat(before.getTasks()).extracting(Task::getTitle).containsExactly("fast");
+
+			first.commit();
+
+			SyncResponse after = syncService.getChangesSince(before.getVersion());
+			assertThat(after.getTasks()).extracting(Task::getTitle).contains("slow");
+			assertThat(after.getVersion()).isGreaterThan(before.getVersion());
+		}
+	}
+
+	@Test
+	void syncWithNothingInFlightReturnsNoRowsNextTime() throws SQLException {
+		try (Connection connection = dataSource.getConnection()) {
+			insertTask(connection, "done");
+		}
+
+		SyncResponse full = syncService.getChangesSince(0);
+		assertThat(full.getTasks()).extracting(Task::getTitle).containsExactly("done");
+
+		assertThat(syncService.getChangesSince(full.getVersion()).getTasks()).isEmpty();
+	}
+
+	private void insertTask(Connection connection, String title) throws SQLException {
+		try (PreparedStatement insert = connection.prepareStatement(
+				"INSERT INTO tasks (id, user_id, title, completed, priority) VALUES (?, ?, ?, false, 0)")) {
+			insert.setObject(1, UUID.randomUUID());
+			insert.setObject(2, userId);
+			insert.setString(3, title);
+			insert.executeUpdate();
+		}
+	}
+
+	private static String username() {
+		return System.getenv().getOrDefault("TEST_DATABASE_USERNAME", "postgres");
+	}
+
+	private static String password() {
+		return System.getenv().getOrDefault("TEST_DATABASE_PASSWORD", "");
+	}
+}
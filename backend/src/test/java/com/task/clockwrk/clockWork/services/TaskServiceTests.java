@@ -0,0 +1,215 @@
+package com.task.clockwrk.clockWork.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.task.clockwrk.clockWork.dtos.TaskBatchResponse;
+import com.task.clockwrk.clockWork.dtos.TaskOperation;
+import com.task.clockwrk.clockWork.entity.Task;
+import com.task.clockwrk.clockWork.exception.ApiException;
+import com.task.clockwrk.clockWork.repository.UserRepository;
+import com.task.clockwrk.clockWork.security.CurrentUser;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Applies task batches in their own transactions against a freshly migrated schema. Needs a
+ * PostgreSQL database, e.g. TEST_DATABASE_URL=jdbc:postgresql://localhost:5432/clockwrk_db.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ TaskService.class, SyncService.class, CollectionVersionService.class, SimpleMeterRegistry.class })
+// Each batch commits or rolls back on its own, as it does behind the controller
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class TaskServiceTests {
+
+	private static final String SCHEMA = "task_batch_check";
+
+	@MockitoBean
+	private CurrentUser currentUser;
+
+	@MockitoBean
+	private SnapshotCache snapshotCache;
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private final UUID userId = UUID.randomUUID();
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		String url = System.getenv("TEST_DATABASE_URL");
+		registry.add("spring.datasource.url", () -> url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA);
+		registry.add("spring.datasource.username", TaskServiceTests::username);
+		registry.add("spring.datasource.password", TaskServiceTests::password);
+		registry.add("spring.flyway.schemas", () -> SCHEMA);
+	}
+
+	@BeforeAll
+	@AfterAll
+	static void dropSchema() throws SQLException {
+		try (Connection connection = DriverManager.getConnection(System.getenv("TEST_DATABASE_URL"), username(), password());
+				Statement statement = connection.createStatement()) {
+			statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+		}
+	}
+
+	@BeforeEach
+	void createUser() throws SQLException {
+		insertUser(userId);
+		when(currentUser.getId()).thenReturn(userId);
+		// Resolved inside the batch's transaction, like the request-scoped bean does
+		when(currentUser.getReference()).thenAnswer(invocation -> userRepository.getReferenceById(userId));
+	}
+
+	@Test
+	void createsAreWrittenInJdbcBatches() throws SQLException {
+		List<TaskOperation> operations = IntStream.range(0, 100)
+				.mapToObj(i -> create("task " + i))
+				.toList();
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		TaskBatchResponse response = taskService.applyBatch(operations);
+
+		assertThat(response.getSaved()).hasSize(100);
+		assertThat(titles(userId)).hasSize(100);
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(100);
+		// Two batches of fifty instead of a hundred single-row INSERTs
+		assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+	}
+
+	@Test
+	void aTaskOfSomeoneElseFailsTheWholeBatch() throws SQLException {
+		UUID mine = insertTask(userId, "mine");
+		UUID otherUserId = UUID.randomUUID();
+		insertUser(otherUserId);
+		UUID theirs = insertTask(otherUserId, "theirs");
+
+		assertThatThrownBy(() -> taskService.applyBatch(List.of(
+				create("new"),
+				update(mine, "changed"),
+				TaskOperation.builder().type(TaskOperation.Type.DELETE).id(theirs).build())))
+				.isInstanceOfSatisfying(ApiException.class,
+						e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+
+		assertThat(titles(userId)).containsExactly("mine");
+		assertThat(titles(otherUserId)).containsExactly("theirs");
+	}
+
+	@Test
+	void aTaskDeletedEarlierInTheBatchCannotBeUpdated() throws SQLException {
+		UUID task = insertTask(userId, "task");
+
+		assertThatThrownBy(() -> taskService.applyBatch(List.of(delete(task), update(task, "changed"))))
+				.isInstanceOfSatisfying(ApiException.class,
+						e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+		assertThat(titles(userId)).containsExactly("task");
+
+		// The other way round the update is dropped along with the task
+		TaskBatchResponse response = taskService.applyBatch(List.of(update(task, "changed"), delete(task)));
+		assertThat(response.getSaved()).isEmpty();
+		assertThat(response.getDeleted()).containsExactly(task);
+		assertThat(titles(userId)).isEmpty();
+	}
+
+	private static TaskOperation create(String title) {
+		return TaskOperation.builder().type(TaskOperation.Type.CREATE).task(Task.builder().title(title).build()).build();
+	}
+
+	private static TaskOperation update(UUID id, String title) {
+		return TaskOperation.builder().type(TaskOperation.Type.UPDATE).id(id).task(Task.builder().title(title).build()).build();
+	}
+
+	private static TaskOperation delete(UUID id) {
+		return TaskOperation.builder().type(TaskOperation.Type.DELETE).id(id).build();
+	}
+
+	private void insertUser(UUID id) throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement insert = connection.prepareStatement(
+						"INSERT INTO users (id, email, password_hash) VALUES (?, ?, 'x')")) {
+			insert.setObject(1, id);
+			insert.setString(2, id + "@example.com");
+			insert.executeUpdate();
+		}
+	}
+
+	private UUID insertTask(UUID owner, String title) throws SQLException {
+		UUID id = UUID.randomUUID();
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement insert = connection.prepareStatement(
+						"INSERT INTO tasks (id, user_id, title, completed, priority) VALUES (?, ?, ?, false, 0)")) {
+			insert.setObject(1, id);
+			insert.setObject(2, owner);
+			insert.setString(3, title);
+			insert.executeUpdate();
+		}
+		return id;
+	}
+
+	private List<String> titles(UUID owner) throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement select = connection.prepareStatement("SELECT title FROM tasks WHERE user_id = ?")) {
+			select.setObject(1, owner);
+			List<String> titles = new ArrayList<>();
+			try (ResultSet rows = select.executeQuery()) {
+				while (rows.next()) {
+					titles.add(rows.getString(1));
+				}
+			}
+			return titles;
+		}
+	}
+
+	private static String username() {
+		return System.getenv().getOrDefault("TEST_DATABASE_USERNAME", "postgres");
+	}
+
+	private static String password() {
+		return System.getenv().getOrDefault("TEST_DATABASE_PASSWORD", "");
+	}
+}
@@ -0,0 +1,196 @@
+package com.task.clockwrk.clockWork.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.task.clockwrk.clockWork.exception.ApiException;
+import com.task.clockwrk.clockWork.repository.StoredFileRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UploadStoreTests {
+
+	private static final String STORED_HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+	@TempDir
+	Path root;
+
+	private final StoredFileRepository repository = mock(StoredFileRepository.class);
+	private final Map<String, String> registered = new HashMap<>();
+	private UploadStore store;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		// Like the upsert: the first name registered for a hash wins
+		when(repository.registerUpload(anyString(), anyString(), anyString(), anyLong()))
+				.thenAnswer(call -> registered.computeIfAbsent(call.getArgument(0), hash -> call.getArgument(1)));
+		store = new UploadStore(repository, mock(TransactionTemplate.class), new SimpleMeterRegistry(), mock(UploadCache.class),
+				new LocalBlobStorage(root.toString()), root.toString(), Duration.ofHours(24), DataSize.ofMegabytes(1));
+	}
+
+	@Test
+	void identicalUploadsShareOneFileNamedByTheirHash() throws Exception {
+		UploadStore.Stored first = store.store(content("avatar"), "image/png", ".png", 1024);
+		UploadStore.Stored second = store.store(content("avatar"), "image/jpeg", ".jpg", 1024);
+
+		String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+				.digest("avatar".getBytes(StandardCharsets.UTF_8)));
+		assertThat(first.fileName()).isEqualTo(hash + ".png");
+		assertThat(first.deduplicated()).isFalse();
+		assertThat(second.deduplicated()).isTrue();
+		assertThat(second.fileName()).isEqualTo(first.fileName());
+		assertThat(Files.readString(root.resolve(first.fileName()))).isEqualTo("avatar");
+		assertThat(storedFiles()).containsExactly(first.fileName());
+		verify(repository, times(2)).registerUpload(eq(hash), anyString(), anyString(), eq(6L));
+	}
+
+	@Test
+	void oversizedUploadsAreRejectedWithoutLeavingFilesBehind() throws IOException {
+		assertThatThrownBy(() -> store.store(content("x".repeat(2048)), "image/png", ".png", 1024))
+				.isInstanceOf(ApiException.class)
+				.hasMessageContaining("exceeds");
+
+		assertThat(storedFiles()).isEmpty();
+		verifyNoInteractions(repository);
+	}
+
+	@Test
+	void onlyStoreUrlsAreReferenceCounted() {
+		store.retain("https://api.example.com/uploads/" + STORED_HASH + ".png");
+		store.release("https://lh3.googleusercontent.com/a/photo.jpg");
+		store.release(null);
+
+		store.release("/uploads/64/" + STORED_HASH + ".png");
+
+		verify(repository).retain(STORED_HASH);
+		verify(repository).release(STORED_HASH);
+		verifyNoMoreInteractions(repository);
+	}
+
+	@Test
+	void variantUrlsPointAtTheSizedCopy() {
+		assertThat(UploadStore.variantUrl("https://api.example.com/uploads/" + STORED_HASH + ".png", 64))
+				.isEqualTo("https://api.example.com/uploads/64/" + STORED_HASH + ".png");
+		assertThat(UploadStore.variantUrl("https://lh3.googleusercontent.com/a/photo.jpg", 64))
+				.isEqualTo("https://lh3.googleusercontent.com/a/photo.jpg");
+	}
+
+	@Test
+	void remoteFilesAreReadThroughOneLocalCopy() throws Exception {
+		BlobStorage remote = mock(BlobStorage.class);
+		when(remote.download(eq(STORED_HASH + ".png"), any())).thenAnswer(call -> {
+			Files.writeString(call.getArgument(1), "avatar");
+			return true;
+		});
+		UploadStore remoteStore = new UploadStore(repository, mock(TransactionTemplate.class), new SimpleMeterRegistry(),
+				mock(UploadCache.class), remote, root.toString(), Duration.ofHours(24), DataSize.ofMegabytes(1));
+
+		Path copy = remoteStore.resolve(STORED_HASH + ".png");
+		assertThat(remoteStore.resolve(STORED_HASH + ".png")).isEqualTo(copy);
+		assertThat(remoteStore.resolve("missing.png")).isNull();
+
+		assertThat(Files.readString(copy)).isEqualTo("avatar");
+		verify(remote, times(1)).download(eq(STORED_HASH + ".png"), any());
+	}
+
+	@Test
+	void aSlowFetchOnlyHoldsUpReadersOfTheSameFile() throws Exception {
+		CountDownLatch fetching = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		BlobStorage remote = mock(BlobStorage.class);
+		when(remote.download(anyString(), any())).thenAnswer(call -> {
+			if (call.getArgument(0).equals(STORED_HASH + ".png")) {
+				fetching.countDown();
+				release.await();
+			}
+			Files.writeString(call.getArgument(1), "avatar");
+			return true;
+		});
+		UploadStore remoteStore = new UploadStore(repository, mock(TransactionTemplate.class), new SimpleMeterRegistry(),
+				mock(UploadCache.class), remote, root.toString(), Duration.ofHours(24), DataSize.ofMegabytes(1));
+
+		CompletableFuture<Path> first = CompletableFuture.supplyAsync(() -> resolve(remoteStore, STORED_HASH + ".png"));
+		fetching.await();
+		CompletableFuture<Path> second = CompletableFuture.supplyAsync(() -> resolve(remoteStore, STORED_HASH + ".png"));
+
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> remoteStore.resolve("other.png"));
+		release.countDown();
+		assertThat(first.get()).isEqualTo(second.get());
+		verify(remote, times(1)).download(eq(STORED_HASH + ".png"), any());
+	}
+
+	@Test
+	void filesLeftFromLocalStorageAreServedUntilMovedToTheRemoteOne() throws Exception {
+		BlobStorage remote = mock(BlobStorage.class);
+		when(remote.presignedUrl(anyString(), any())).thenReturn(Optional.of(URI.create("https://bucket.example.com/x")));
+		UploadStore remoteStore = new UploadStore(repository, mock(TransactionTemplate.class), new SimpleMeterRegistry(),
+				mock(UploadCache.class), remote, root.toString(), Duration.ofHours(24), DataSize.ofMegabytes(1));
+		Path legacy = Files.writeString(root.resolve("3f2b7c1e-legacy.png"), "avatar");
+
+		assertThat(remoteStore.resolve("3f2b7c1e-legacy.png")).isEqualTo(legacy);
+		assertThat(remoteStore.presignedUrl("3f2b7c1e-legacy.png", Duration.ofMinutes(1))).isEmpty();
+		verify(remote, times(0)).download(anyString(), any());
+
+		ReflectionTestUtils.setField(remoteStore, "uploadLocalFiles", true);
+		remoteStore.uploadLocalFiles();
+
+		await().atMost(Duration.ofSeconds(5)).until(() -> !Files.exists(legacy));
+		verify(remote).put("3f2b7c1e-legacy.png", legacy, "image/png");
+		assertThat(remoteStore.presignedUrl("3f2b7c1e-legacy.png", Duration.ofMinutes(1))).isPresent();
+	}
+
+	private static Path resolve(UploadStore store, String fileName) {
+		try {
+			return store.resolve(fileName);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private List<String> storedFiles() throws IOException {
+		try (Stream<Path> files = Files.list(root)) {
+			return files.filter(Files::isRegularFile).map(path -> path.getFileName().toString()).toList();
+		}
+	}
+
+	private static ByteArrayInputStream content(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -75,7 +75,7 @@ export class CalendarComponent implements OnInit, AfterViewInit {
         this.authService.getProfile().subscribe({
             next: (user: UserProfile) => {
                 this.username = user.name || 'User';
-                this.userAvatarUrl = user.profilePictureUrl || '';
+                this.userAvatarUrl = user.avatarUrl || user.profilePictureUrl || '';
             },
             error: () => { }
         });
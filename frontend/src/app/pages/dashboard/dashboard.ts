@@ -216,7 +216,7 @@ export class DashboardComponent implements OnInit {
     this.authService.getProfile().subscribe({
       next: (user: UserProfile) => {
         this.username = user.name || 'User';
-        this.userAvatarUrl = user.profilePictureUrl || '';
+        this.userAvatarUrl = user.avatarUrl || user.profilePictureUrl || '';
       },
       error: () => this.notification.error('Failed to load profile')
     });
@@ -562,7 +562,7 @@ export class DashboardComponent implements OnInit {
     this.authService.updateProfile(this.editProfileData).subscribe({
       next: (user: UserProfile) => {
         this.username = user.name;
-        this.userAvatarUrl = user.profilePictureUrl || '';
+        this.userAvatarUrl = user.avatarUrl || user.profilePictureUrl || '';
         this.notification.success('Profile updated successfully');
         this.closeProfileModal();
       },
@@ -140,7 +140,7 @@ export class HabitsComponent implements OnInit {
         this.authService.getProfile().subscribe({
             next: (user: UserProfile) => {
                 this.username = user.name || 'User';
-                this.userAvatarUrl = user.profilePictureUrl || '';
+                this.userAvatarUrl = user.avatarUrl || user.profilePictureUrl || '';
             },
             error: () => {}
         });
@@ -434,20 +434,19 @@ export class HabitsComponent implements OnInit {
         if (!habit.id) return;
 
         const dateStr = this.formatDate(date);
-        const isCurrentlyCompleted = this.isHabitCompleted(habit.id, date);
 
         this.habitService.toggleHabitEntry(habit.id, dateStr).subscribe({
-            next: () => {
+            next: (result) => {
                 let habitMap = this.habitEntries.get(habit.id!);
                 if (!habitMap) {
                     habitMap = new Map();
                     this.habitEntries.set(habit.id!, habitMap);
                 }
 
-                habitMap.set(dateStr, !isCurrentlyCompleted);
+                habitMap.set(dateStr, result.completed);
                 this.loadHabits();
 
-                if (!isCurrentlyCompleted && event) {
+                if (result.completed && event) {
                     this.triggerConfetti(event);
                 }
             },
@@ -17,6 +17,7 @@ export interface UserProfile {
   email: string;
   name: string;
   profilePictureUrl?: string;
+  avatarUrl?: string;
   emailVerified: boolean;
   createdAt: string;
 }
@@ -226,9 +227,10 @@ export class AuthService {
     return this.http.put(`${environment.apiUrl}/users/password`, data);
   }
 
+  // The file is the request body, so the server can stream it to disk without multipart parsing
   uploadAvatar(file: File): Observable<{ url: string }> {
-    const formData = new FormData();
-    formData.append('file', file);
-    return this.http.post<{ url: string }>(`${environment.apiUrl}/upload`, formData);
+    return this.http.post<{ url: string }>(`${environment.apiUrl}/upload`, file, {
+      headers: { 'Content-Type': file.type }
+    });
   }
 }
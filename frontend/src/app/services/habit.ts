@@ -35,6 +35,12 @@ export interface HabitEntry {
     notes?: string;
 }
 
+export interface HabitToggleResult {
+    habitId: string;
+    date: string;
+    completed: boolean;
+}
+
 @Injectable({
     providedIn: 'root'
 })
@@ -114,16 +120,13 @@ export class HabitService {
         );
     }
 
-    toggleHabitEntry(habitId: string, date: string): Observable<void> {
+    toggleHabitEntry(habitId: string, date: string): Observable<HabitToggleResult> {
         const params = new HttpParams().set('date', date);
-        return this.http.post<void>(`${this.apiUrl}/${habitId}/toggle`, {}, { params }).pipe(
-            tap(() => {
-                // Update local entries cache if it exists and contains this date
-                if (this.cachedEntries && this.cachedEntries[habitId] && this.cachedEntries[habitId][date]) {
-                    this.cachedEntries[habitId][date].completed = !this.cachedEntries[habitId][date].completed;
-                } else if (this.cachedEntries && this.cachedEntries[habitId]) {
-                    // Entry might not exist yet in cache (first toggle), so assume it became true
-                    this.cachedEntries[habitId][date] = { completed: true, date: date };
+        return this.http.post<HabitToggleResult>(`${this.apiUrl}/${habitId}/toggle`, {}, { params }).pipe(
+            tap(result => {
+                // The server returns the state after the toggle, so the cache never drifts
+                if (this.cachedEntries && this.cachedEntries[habitId]) {
+                    this.cachedEntries[habitId][date] = { ...this.cachedEntries[habitId][date], completed: result.completed, date: date };
                 }
 
                 // Refresh main list for stats
@@ -132,6 +135,11 @@ export class HabitService {
         );
     }
 
+    clearEntriesCache() {
+        this.cachedEntries = null;
+        this.cachedRange = '';
+    }
+
     getHabitEntries(habitId: string, startDate: string, endDate: string): Observable<any> {
         const params = new HttpParams()
             .set('startDate', startDate)
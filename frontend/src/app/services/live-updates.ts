@@ -0,0 +1,157 @@
+import { HttpClient } from '@angular/common/http';
+import { Injectable, NgZone } from '@angular/core';
+import { NavigationEnd, Router } from '@angular/router';
+import { filter } from 'rxjs/operators';
+import { environment } from '../../environments/environment';
+import { AuthService } from './auth';
+import { HabitService } from './habit';
+import { TaskService } from './task';
+
+type Collection = 'TASK' | 'HABIT' | 'HABIT_ENTRY' | 'CUSTOM_LIST';
+
+interface CollectionChange {
+    collection: Collection;
+    changedAt: string;
+}
+
+interface StreamTicket {
+    ticket: string;
+    expiresAt: string;
+}
+
+/**
+ * Keeps tasks and habits current while the user is signed in. The server pushes which
+ * collection changed; the affected lists are refetched (conditionally, via their ETags).
+ */
+@Injectable({
+    providedIn: 'root'
+})
+export class LiveUpdatesService {
+    private readonly RECONNECT_DELAY_MS = 5000;
+    private readonly REFRESH_DEBOUNCE_MS = 250;
+
+    private source: EventSource | null = null;
+    private connecting = false;
+    private lastEventId: string | null = null;
+    private reconnectTimer: ReturnType<typeof setTimeout> | null = null;
+    private pending = new Set<Collection>();
+    private refreshTimer: ReturnType<typeof setTimeout> | null = null;
+
+    constructor(
+        private http: HttpClient,
+        private authService: AuthService,
+        private taskService: TaskService,
+        private habitService: HabitService,
+        private router: Router,
+        private zone: NgZone
+    ) { }
+
+    // Follows sign-in and sign-out, both of which end in a navigation
+    start() {
+        this.sync();
+        this.router.events
+            .pipe(filter(event => event instanceof NavigationEnd))
+            .subscribe(() => this.sync());
+    }
+
+    private sync() {
+        if (this.authService.isAuthenticated()) {
+            if (!this.source && !this.reconnectTimer && !this.connecting) {
+                this.connect();
+            }
+        } else {
+            this.disconnect();
+            this.lastEventId = null;
+        }
+    }
+
+    // EventSource cannot send an Authorization header, so each connection is opened with a
+    // single-use ticket fetched through the authenticated API
+    private connect() {
+        this.connecting = true;
+        this.http.post<StreamTicket>(`${environment.apiUrl}/events/tickets`, {}).subscribe({
+            next: ({ ticket }) => {
+                this.connecting = false;
+                // Signed out while the ticket was on its way
+                if (this.authService.isAuthenticated() && !this.source) {
+                    this.open(ticket);
+                }
+            },
+            error: () => {
+                this.connecting = false;
+                this.reconnectLater();
+            }
+        });
+    }
+
+    private open(ticket: string) {
+        let url = `${environment.apiUrl}/events?ticket=${encodeURIComponent(ticket)}`;
+        if (this.lastEventId) {
+            url += `&lastEventId=${encodeURIComponent(this.lastEventId)}`;
+        }
+
+        // Outside Angular, so heartbeats and reconnects do not trigger change detection
+        this.zone.runOutsideAngular(() => {
+            const source = new EventSource(url);
+            source.addEventListener('change', (event: MessageEvent) => {
+                this.lastEventId = event.lastEventId || this.lastEventId;
+                const change: CollectionChange = JSON.parse(event.data);
+                this.schedule([change.collection]);
+            });
+            source.addEventListener('resync', (event: MessageEvent) => {
+                this.lastEventId = event.lastEventId || this.lastEventId;
+                this.schedule(['TASK', 'HABIT', 'HABIT_ENTRY']);
+            });
+            source.onerror = () => {
+                // The browser's own retry would present the spent ticket again, so every dropped or
+                // rejected connection is reopened here with a new one
+                this.disconnect();
+                this.reconnectLater();
+            };
+            this.source = source;
+        });
+    }
+
+    private reconnectLater() {
+        this.reconnectTimer = setTimeout(() => {
+            this.reconnectTimer = null;
+            this.sync();
+        }, this.RECONNECT_DELAY_MS);
+    }
+
+    private disconnect() {
+        this.source?.close();
+        this.source = null;
+        if (this.reconnectTimer) {
+            clearTimeout(this.reconnectTimer);
+            this.reconnectTimer = null;
+        }
+    }
+
+    // Bulk changes arrive as bursts of events; refetch each collection once per burst
+    private schedule(collections: Collection[]) {
+        collections.forEach(collection => this.pending.add(collection));
+        if (this.refreshTimer) {
+            return;
+        }
+        this.refreshTimer = setTimeout(() => {
+            this.refreshTimer = null;
+            const changed = new Set(this.pending);
+            this.pending.clear();
+            this.zone.run(() => this.refresh(changed));
+        }, this.REFRESH_DEBOUNCE_MS);
+    }
+
+    private refresh(changed: Set<Collection>) {
+        if (changed.has('TASK')) {
+            this.taskService.clearCalendarCache();
+            this.taskService.refreshTasks();
+        }
+        if (changed.has('HABIT_ENTRY')) {
+            this.habitService.clearEntriesCache();
+        }
+        if (changed.has('HABIT') || changed.has('HABIT_ENTRY')) {
+            this.habitService.refreshHabits();
+        }
+    }
+}
@@ -59,6 +59,11 @@ export class TaskService {
         });
     }
 
+    clearCalendarCache() {
+        this.cachedCalendarTasks = [];
+        this.cachedCalendarRange = '';
+    }
+
     createTask(task: Task): Observable<Task> {
         return this.http.post<Task>(this.apiUrl, task).pipe(
             tap(newTask => {